@@ -10,11 +10,13 @@ import vest.assist.annotations.Scan;
 import vest.assist.annotations.SkipInjection;
 import vest.assist.provider.AdHocProvider;
 import vest.assist.provider.AspectWrapper;
+import vest.assist.provider.CompletableFutureValueLookup;
 import vest.assist.provider.ConstructorProvider;
 import vest.assist.provider.FactoryMethodProvider;
 import vest.assist.provider.InjectAnnotationInterceptor;
 import vest.assist.provider.InjectionProvider;
 import vest.assist.provider.LazyProvider;
+import vest.assist.provider.LazyWrapper;
 import vest.assist.provider.PropertyInjector;
 import vest.assist.provider.ProviderTypeValueLookup;
 import vest.assist.provider.ScheduledTaskInterceptor;
@@ -22,11 +24,15 @@ import vest.assist.provider.ScopeWrapper;
 import vest.assist.provider.ShutdownContainer;
 import vest.assist.provider.SingletonScopeFactory;
 import vest.assist.provider.ThreadLocalScopeFactory;
+import vest.assist.util.ComponentIndex;
 import vest.assist.util.PackageScanner;
+import vest.assist.util.ScanCache;
 
 import javax.inject.Provider;
+import javax.inject.Singleton;
 import java.io.Closeable;
 import java.lang.annotation.Annotation;
+import java.lang.ref.Reference;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Executable;
 import java.lang.reflect.Field;
@@ -35,12 +41,20 @@ import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -84,36 +98,88 @@ public class Assist implements Closeable {
         }
     }
 
-    private final ProviderIndex index = new ProviderIndex();
+    private final ProviderIndex index;
     private final ScopeWrapper scopeWrapper = new ScopeWrapper();
     private final List<ValueLookup> valueLookups = new ArrayList<>(8);
     private final List<InstanceInterceptor> interceptors = new ArrayList<>(8);
     private final List<ProviderWrapper> wrappers = new ArrayList<>(8);
+    private final List<Object> extensions = new ArrayList<>(8);
+    // keyed weakly by the element's metadata, and the values do not refer to the element, so an entry does not keep the
+    // element's class loaded; stale entries are swept out as the map grows
+    private final Map<Reference<MemberMetadata>, ResolvedValue> resolvedValues = new ConcurrentHashMap<>(256);
+    private volatile int sweepResolvedAt = 256;
+    private final Map<AssistProvider<?>, EagerInitializer.Plan> asyncPlans = new ConcurrentHashMap<>(16);
+    private volatile int valueLookupsVersion = 0;
     private final ShutdownContainer shutdownContainer;
+    private volatile boolean methodHandleInstantiation = false;
+    private volatile ScanCache scanCache = ScanCache.fromSystemProperty();
+    private volatile Executor eagerExecutor;
+    private volatile Executor asyncExecutor;
 
     /**
      * Create a new Assist instance.
      */
     public Assist(String... configurationScanBasePackages) {
-        register(scopeWrapper);
-        register(new SingletonScopeFactory());
-        register(new ThreadLocalScopeFactory());
-
-        register(new AspectWrapper(this));
-        register(new ProviderTypeValueLookup(this));
-        register(new PropertyInjector(this));
-        register(new InjectAnnotationInterceptor(this));
-        register(new ScheduledTaskInterceptor(this));
+        this((Assist) null);
+        Optional.ofNullable(configurationScanBasePackages)
+                .map(Stream::of)
+                .orElse(Stream.empty())
+                .forEach(p -> packageScan(p, Configuration.class, this::addConfig));
+    }
+
+    // a new root instance, or a child of the given (frozen) parent
+    private Assist(Assist parent) {
+        this.index = parent != null ? new ProviderIndex(parent.index) : new ProviderIndex();
+        add(scopeWrapper);
+        add(new SingletonScopeFactory());
+        add(new ThreadLocalScopeFactory());
+
+        add(new AspectWrapper(this));
+        add(new LazyWrapper());
+        add(new CompletableFutureValueLookup(this));
+        add(new ProviderTypeValueLookup(this));
+        add(new PropertyInjector(this));
+        add(new InjectAnnotationInterceptor(this));
+        add(new ScheduledTaskInterceptor(this));
         this.shutdownContainer = new ShutdownContainer();
-        register(this.shutdownContainer);
+        add(this.shutdownContainer);
 
         // allow the Assist to inject itself into object instances
         setSingleton(Assist.class, this);
 
-        Optional.ofNullable(configurationScanBasePackages)
-                .map(Stream::of)
-                .orElse(Stream.empty())
-                .forEach(p -> packageScan(p, Configuration.class, this::addConfig));
+        if (parent != null) {
+            this.methodHandleInstantiation = parent.methodHandleInstantiation;
+            this.scanCache = parent.scanCache;
+            this.eagerExecutor = parent.eagerExecutor;
+            this.asyncExecutor = parent.asyncExecutor;
+            for (Object extension : parent.extensions) {
+                register(extension);
+            }
+        }
+    }
+
+    /**
+     * Create a child of this Assist instance, e.g. for a tenant or a job. This instance must have been
+     * {@link #freeze() frozen} first, so its bindings can be shared as they are; creating a child is cheap, the child
+     * only holds what is registered with it, asking this instance for everything else. Providers registered with the
+     * child shadow the providers of this instance with the same type and qualifier, in every lookup (including
+     * {@link #providersFor(Class)}, {@link #providersForAnnotation(Class)} and {@link #validate()}); providers the child
+     * creates on demand for unregistered classes live in the child, so their instances are injected with the child's
+     * providers. The providers of this instance are shared as they are: its singletons are not created again, and the
+     * instances it creates do not see the child's providers.
+     * <p>
+     * The child has its own scopes, shutdown container ({@link #close()} only closes the instances created by the
+     * child) and built-in extensions; the {@link ValueLookup}s, interceptors, scope factories and wrappers registered
+     * with this instance are registered with the child as well.
+     *
+     * @return The child Assist instance
+     * @throws IllegalStateException if this instance has not been frozen
+     */
+    public Assist child() {
+        if (!frozen()) {
+            throw new IllegalStateException("assist must be frozen before creating a child, see Assist.freeze()");
+        }
+        return new Assist(this);
     }
 
     /**
@@ -170,6 +236,69 @@ public class Assist implements Closeable {
         return providerFor(type, qualifier).get();
     }
 
+    /**
+     * Get an instance of the given type asynchronously; see {@link Assist#instanceAsync(Class, Annotation)}.
+     *
+     * @param type The object type to get an instance of
+     * @return A future that completes with the instance
+     */
+    public <T> CompletableFuture<T> instanceAsync(Class<T> type) {
+        return instanceAsync(type, (Annotation) null);
+    }
+
+    /**
+     * Get a named instance of the given type asynchronously; see {@link Assist#instanceAsync(Class, Annotation)}.
+     *
+     * @param type The object type to get an instance of
+     * @param name The qualifier name of the provider to use to get the instance
+     * @return A future that completes with the named instance
+     */
+    public <T> CompletableFuture<T> instanceAsync(Class<T> type, String name) {
+        return instanceAsync(type, QualifierKey.named(Objects.requireNonNull(name, "name may not be null")).annotation());
+    }
+
+    /**
+     * Get a qualified instance of the given type asynchronously, using the {@link #asyncExecutor()}. The registered
+     * singletons the instance depends on (directly, or through any number of other providers) that have not been
+     * created yet are created first, concurrently where they do not depend on each other; then the instance itself is
+     * created. Dependencies that are deferred ({@link Provider}, @Lazy and {@link CompletableFuture} injection) are not
+     * created ahead of time. The singletons to create are found by walking the dependency graph the first time an
+     * instance of the provider is asked for, and again after providers or ValueLookups are registered.
+     *
+     * @param type      The object type to get an instance of
+     * @param qualifier The qualifier of the of the provider to use to get the instance
+     * @return A future that completes with the instance, or exceptionally if the instance (or one of the singletons it
+     * depends on) can not be created
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> instanceAsync(Class<T> type, Annotation qualifier) {
+        try {
+            AssistProvider<T> provider = (AssistProvider<T>) providerFor(type, qualifier);
+            return (CompletableFuture<T>) new EagerInitializer(asyncPlan(provider), asyncExecutor()).start().get(provider);
+        } catch (RuntimeException e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    // the singletons to create ahead of the provider's instance, computed once for as long as the bindings stay the same
+    private EagerInitializer.Plan asyncPlan(AssistProvider<?> provider) {
+        int version = resolutionVersion();
+        EagerInitializer.Plan plan = asyncPlans.get(provider);
+        if (plan == null || plan.version() != version) {
+            DependencyGraph graph = new DependencyGraph(this, index, valueLookups, Collections.singletonList(provider));
+            // only singletons are worth creating ahead: the instance gets the same one; the registered check leaves out
+            // the implicit providers of the graph, which are not the ones the instance will use
+            List<AssistProvider<?>> providers = graph.providers().stream()
+                    .filter(p -> p == provider || (p.scope() instanceof Singleton && index.getProvider(p.type(), QualifierKey.of(p.qualifier())) == p))
+                    .collect(Collectors.toList());
+            plan = new EagerInitializer.Plan(graph, providers, version);
+            asyncPlans.put(provider, plan);
+        }
+        return plan;
+    }
+
     /**
      * Get all instances of the given type.
      *
@@ -202,8 +331,10 @@ public class Assist implements Closeable {
      * @param name The qualifier name of the provider.
      * @return The named Provider that can supply a class that satisfies the given type
      */
+    @SuppressWarnings("unchecked")
     public <T> Provider<T> providerFor(Class<T> type, String name) {
-        return providerFor(type, new NamedImpl(Objects.requireNonNull(name, "name may not be null")));
+        Objects.requireNonNull(type);
+        return index.getOrCreate(type, QualifierKey.named(Objects.requireNonNull(name, "name may not be null")), this::buildConstructorProvider);
     }
 
     /**
@@ -221,7 +352,32 @@ public class Assist implements Closeable {
     @SuppressWarnings("unchecked")
     public <T> Provider<T> providerFor(Class<T> type, Annotation qualifier) {
         Objects.requireNonNull(type);
-        return index.getOrCreate(type, qualifier, this::buildConstructorProvider);
+        return index.getOrCreate(type, QualifierKey.of(qualifier), this::buildConstructorProvider);
+    }
+
+    /**
+     * Get a provider for a generic type, e.g. <code>Map&lt;String, Handler&gt;</code>. A provider bound to exactly the
+     * given parameterized type (a @Factory method returning that type, see {@link AssistProvider#genericType()}) is
+     * returned if there is one, otherwise this is the same as {@link #providerFor(Class, Annotation)} for the raw type.
+     *
+     * @param type      The type of object the provider will return, a class or a fully specified parameterized type
+     * @param qualifier The qualifier of the expected class instance
+     * @return A Provider that can supply a class that satisfies the given type and qualifier
+     * @throws IllegalArgumentException if the type is not fully specified (it has wildcards or type variables)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Provider<T> providerFor(Type type, Annotation qualifier) {
+        TypeKey key = TypeKey.of(Objects.requireNonNull(type));
+        if (key == null) {
+            throw new IllegalArgumentException(type.getTypeName() + " is not a specific type");
+        }
+        if (key.parameterized()) {
+            AssistProvider<T> provider = index.getProvider(key, QualifierKey.of(qualifier));
+            if (provider != null) {
+                return provider;
+            }
+        }
+        return providerFor((Class<T>) key.rawType(), qualifier);
     }
 
     /**
@@ -257,8 +413,7 @@ public class Assist implements Closeable {
      */
     @SuppressWarnings("unchecked")
     public <T> Stream<Provider<T>> providersFor(Class<T> type, Annotation qualifier) {
-        return index.getProviders(type)
-                .filter(ap -> Objects.equals(ap.qualifier(), qualifier))
+        return index.getProviders(type, QualifierKey.of(qualifier))
                 .map(p -> (Provider<T>) p);
     }
 
@@ -337,41 +492,39 @@ public class Assist implements Closeable {
         // create providers from the @Factory methods
         Reflector reflector = Reflector.of(config);
 
-        List<FactoryMethodProvider> eagerFactories = new LinkedList<>();
-        for (Method method : reflector.methods()) {
-            if (method.isAnnotationPresent(Factory.class)) {
-                Class<?> returnType = method.getReturnType();
-                if (returnType == Void.TYPE) {
-                    throw new IllegalArgumentException(reflector.simpleName() + ": factory methods may not return void: " + Reflector.detailString(method));
-                }
+        List<AssistProvider<?>> eager = new LinkedList<>();
+        List<AssistProvider<?>> providers = new ArrayList<>();
+        for (Method method : reflector.methods(Factory.class)) {
+            Class<?> returnType = method.getReturnType();
+            if (returnType == Void.TYPE) {
+                throw new IllegalArgumentException(reflector.simpleName() + ": factory methods may not return void: " + Reflector.detailString(method));
+            }
 
-                FactoryMethodProvider factory = new FactoryMethodProvider(method, config, this);
-                AssistProvider p = buildProvider(factory, method.isAnnotationPresent(SkipInjection.class));
+            FactoryMethodProvider factory = new FactoryMethodProvider(method, config, this);
+            AssistProvider p = buildProvider(factory, Reflector.getMetadata(method).has(SkipInjection.class));
 
-                log.info("{}: adding provider {} {}", Reflector.debugName(config.getClass()), returnType.getSimpleName(), p);
-                if (factory.qualifier() != null && factory.primary()) {
-                    log.info("\\- will be added as primary provider");
-                }
-                index.setProvider(p);
-                if (factory.eager()) {
-                    eagerFactories.add(factory);
-                }
+            log.info("{}: adding provider {} {}", Reflector.debugName(config.getClass()), returnType.getSimpleName(), p);
+            if (factory.qualifier() != null && factory.primary()) {
+                log.info("\\- will be added as primary provider");
+            }
+            providers.add(p);
+            if (factory.eager()) {
+                eager.add(p);
             }
         }
+        // registered together, so the index is only republished once per configuration
+        index.setProviders(providers);
 
         // handle the @Scan annotation on the configuration class which will trigger a package scan to create
         // instances of objects with matching target annotation.
         for (Scan scan : config.getClass().getAnnotationsByType(Scan.class)) {
             for (String basePackage : scan.value()) {
-                packageScan(basePackage, scan.target());
+                eager.addAll(scanProviders(basePackage, scan.target()));
             }
         }
 
-        // handle eager @Factory methods (they must be called after all other processing to avoid missing dependencies).
-        for (FactoryMethodProvider eagerFactory : eagerFactories) {
-            log.info("{}: calling eager factory provider: {}", reflector.simpleName(), eagerFactory);
-            eagerFactory.get();
-        }
+        // initialize eager @Factory methods and scanned classes (after all other processing to avoid missing dependencies).
+        initializeEager(eager);
 
         // run through the injection workflow as the last step
         // allows e.g. @Inject methods to be called that include any final initialization
@@ -391,6 +544,17 @@ public class Assist implements Closeable {
      * @see ProviderWrapper
      */
     public void register(Object obj) {
+        if (index.frozen()) {
+            throw new IllegalStateException("assist has been frozen, " + obj + " can not be registered");
+        }
+        if (add(obj)) {
+            // passed on to children
+            extensions.add(obj);
+        }
+    }
+
+    // register the object with every extension point it implements
+    private boolean add(Object obj) {
         boolean registered = false;
         if (obj instanceof ValueLookup) {
             ValueLookup valueLookup = (ValueLookup) obj;
@@ -398,6 +562,7 @@ public class Assist implements Closeable {
                 registered = true;
                 valueLookups.add(valueLookup);
                 valueLookups.sort(Prioritized.PRIORITIZED_COMPARATOR);
+                valueLookupsVersion++;
             }
         }
 
@@ -427,9 +592,95 @@ public class Assist implements Closeable {
         if (!registered) {
             log.warn("{} did not implement any known interfaces or was already registered", obj);
         }
+        return registered;
+    }
+
+    /**
+     * Select the engine used by constructor and factory method providers to create instances. By default, instances
+     * are created using reflection ({@link java.lang.reflect.Constructor#newInstance(Object...)} and
+     * {@link Method#invoke(Object, Object...)}); when enabled, the injectable constructor or factory method is turned into
+     * a {@link java.lang.invoke.MethodHandle} when the provider is created. Only providers created after this method is
+     * called are affected, so it should be set before any configuration is added.
+     *
+     * @param methodHandleInstantiation true to use method handles, false to use reflection
+     * @see vest.assist.provider.Instantiator
+     */
+    public void setMethodHandleInstantiation(boolean methodHandleInstantiation) {
+        this.methodHandleInstantiation = methodHandleInstantiation;
+    }
+
+    /**
+     * @return true if new providers will create instances using method handles, false if they will use reflection
+     * @see #setMethodHandleInstantiation(boolean)
+     */
+    public boolean methodHandleInstantiation() {
+        return methodHandleInstantiation;
+    }
+
+    /**
+     * Set the cache used by package scans to avoid re-reading jar files that have not changed since they were last
+     * scanned. By default, the cache is configured from the {@value ScanCache#CACHE_DIRECTORY_PROPERTY} system
+     * property, or disabled if the property is not set. The cache is not used for the jars covered by a
+     * {@link vest.assist.util.ComponentIndex}.
+     *
+     * @param scanCache The scan cache to use, null to disable caching
+     */
+    public void setScanCache(ScanCache scanCache) {
+        this.scanCache = scanCache;
+    }
+
+    /**
+     * Set the executor used to initialize {@link Eager} providers. When a configuration is added (or a package scanned),
+     * the eager providers are initialized in dependency order: an eager provider is only initialized after the eager
+     * providers it depends on. With an executor, eager providers that do not depend on each other are initialized
+     * concurrently; by default (null) they are initialized one at a time on the calling thread. Either way the call
+     * that triggered the initialization returns only after every eager provider has been initialized, and the time
+     * spent on each is logged.
+     *
+     * @param eagerExecutor The executor to initialize eager providers with, null to initialize them serially
+     */
+    public void setEagerExecutor(Executor eagerExecutor) {
+        this.eagerExecutor = eagerExecutor;
+    }
+
+    /**
+     * @return The executor used to initialize eager providers, or null if they are initialized serially
+     * @see #setEagerExecutor(Executor)
+     */
+    public Executor eagerExecutor() {
+        return eagerExecutor;
+    }
+
+    /**
+     * Set the executor used to create instances asynchronously, for {@link #instanceAsync(Class, Annotation)} and
+     * {@link CompletableFuture} injection points. By default (null) the {@link ForkJoinPool#commonPool()} is used;
+     * providers that block (e.g. clients that connect to remote services when created) are better served by a
+     * dedicated executor.
+     *
+     * @param asyncExecutor The executor to create instances asynchronously with, null to use the common pool
+     */
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * @return The executor used to create instances asynchronously
+     * @see #setAsyncExecutor(Executor)
+     */
+    public Executor asyncExecutor() {
+        Executor executor = asyncExecutor;
+        return executor != null ? executor : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * @return The scan cache used by package scans, or null if caching is disabled
+     * @see #setScanCache(ScanCache)
+     */
+    public ScanCache scanCache() {
+        return scanCache;
     }
 
-    private <T> AssistProvider<T> buildConstructorProvider(Class<T> type, Annotation qualifier) {
+    <T> AssistProvider<T> buildConstructorProvider(Class<T> type, Annotation qualifier) {
         if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
             throw new RuntimeException("no provider for " + type + "/" + qualifier + " found, and can not auto-create interfaces/abstract classes");
         }
@@ -481,7 +732,7 @@ public class Assist implements Closeable {
         }
         AssistProvider<T> provider = buildProvider(new ConstructorProvider<>(interfaceOrAbstract, concreteImplementation, this), false);
         index.setProvider(provider);
-        if (concreteImplementation.isAnnotationPresent(Eager.class)) {
+        if (Reflector.getMetadata(concreteImplementation).has(Eager.class)) {
             provider.get();
         }
     }
@@ -504,8 +755,8 @@ public class Assist implements Closeable {
      * @return True if this Assist instance has a provider that satisfies the type and name
      */
     public boolean hasProvider(Class<?> type, String name) {
-        Objects.requireNonNull(name);
-        return hasProvider(type, new NamedImpl(name));
+        Objects.requireNonNull(type);
+        return index.exists(type, QualifierKey.named(Objects.requireNonNull(name)));
     }
 
     /**
@@ -517,7 +768,20 @@ public class Assist implements Closeable {
      */
     public boolean hasProvider(Class<?> type, Annotation qualifier) {
         Objects.requireNonNull(type);
-        return index.exists(type, qualifier);
+        return index.exists(type, QualifierKey.of(qualifier));
+    }
+
+    /**
+     * Check if there is a provider for the given generic type and qualifier. For a parameterized type only a provider
+     * bound to exactly that type counts; see {@link #providerFor(Type, Annotation)}.
+     *
+     * @param type      The provided type to check, a class or a parameterized type
+     * @param qualifier The qualifier of the provider to check, can be null
+     * @return True if this Assist instance has a provider that satisfies the type and qualifier
+     */
+    public boolean hasProvider(Type type, Annotation qualifier) {
+        TypeKey key = TypeKey.of(Objects.requireNonNull(type));
+        return key != null && index.getProvider(key, QualifierKey.of(qualifier)) != null;
     }
 
     /**
@@ -541,19 +805,95 @@ public class Assist implements Closeable {
      * @see #packageScan(String, Class, Consumer)
      */
     public void packageScan(String basePackage, Class<? extends Annotation> target) {
+        initializeEager(scanProviders(basePackage, target));
+    }
+
+    // registers the scanned classes and returns the eager providers
+    private List<AssistProvider<?>> scanProviders(String basePackage, Class<? extends Annotation> target) {
+        List<AssistProvider<?>> scanned = new ArrayList<>();
         packageScan(basePackage, target, type -> {
             log.info("  scanned class: {}", type);
             Annotation qualifier = Reflector.of(type).qualifier();
-            AssistProvider<?> provider = index.getOrCreate(type, qualifier, this::buildConstructorProvider);
-            if (provider != null && provider.eager()) {
-                provider.get();
-            }
+            AssistProvider<?> existing = index.getProvider(type, QualifierKey.of(qualifier));
+            scanned.add(existing != null ? existing : buildConstructorProvider(type, qualifier));
         });
+        // registered together, so the index is only republished once per scan
+        List<AssistProvider<?>> eager = new ArrayList<>();
+        for (AssistProvider<?> provider : index.setProvidersIfAbsent(scanned)) {
+            if (provider.eager()) {
+                eager.add(provider);
+            }
+        }
+        return eager;
+    }
+
+    private void initializeEager(List<AssistProvider<?>> eager) {
+        if (!eager.isEmpty()) {
+            new EagerInitializer(new EagerInitializer.Plan(new DependencyGraph(this, index, valueLookups, eager), eager, resolutionVersion()), eagerExecutor).initialize();
+        }
+    }
+
+    /**
+     * Build the dependency graph of all registered providers. No instances are created.
+     *
+     * @return The dependency graph
+     * @see #validate()
+     */
+    public DependencyGraph dependencyGraph() {
+        return new DependencyGraph(this, index, valueLookups, index.allProviders().map(p -> (AssistProvider<?>) p).collect(Collectors.toList()));
+    }
+
+    /**
+     * Verify, without creating any instances, that every dependency of every registered provider can be satisfied and
+     * that there are no dependency cycles. This covers constructor and @Factory method parameters and the @Inject
+     * fields and methods of the provided types. Values supplied by custom {@link ValueLookup}s are recognized if the
+     * ValueLookup implements {@link ValueLookup#supports(Class, Type, AnnotatedElement)}; while a ValueLookup that does
+     * not is registered, missing bindings are not reported, since it may supply them.
+     *
+     * @return The validated dependency graph
+     * @throws IllegalStateException listing every problem found, if any
+     */
+    public DependencyGraph validate() {
+        DependencyGraph graph = dependencyGraph();
+        Set<String> problems = new LinkedHashSet<>();
+        for (DependencyGraph.Dependency dependency : graph.unsatisfied()) {
+            problems.add("unsatisfied dependency " + dependency + " of " + dependency.source());
+        }
+        for (List<AssistProvider<?>> cycle : graph.cycles()) {
+            problems.add("dependency cycle " + cycle.stream().map(Object::toString).collect(Collectors.joining(" -> ")) + " -> " + cycle.get(0));
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("invalid dependency graph:\n  " + String.join("\n  ", problems));
+        }
+        return graph;
+    }
+
+    /**
+     * Freeze the bindings of this Assist instance, for applications that are done registering providers once started.
+     * Every binding (including those of supertypes and primary providers) is compiled into a read-only lookup table, so
+     * resolving a provider afterwards is a single table probe. After freezing, registering providers (and anything
+     * else, see {@link #register(Object)}) throws an IllegalStateException, and so does asking for an unregistered
+     * class that would otherwise get a provider on demand; get the providers for such classes before freezing (e.g.
+     * with {@link #providerFor(Class)}) so they are part of the table.
+     * Freezing more than once has no effect.
+     */
+    public void freeze() {
+        index.freeze();
+    }
+
+    /**
+     * @return true if this Assist instance has been frozen
+     * @see #freeze()
+     */
+    public boolean frozen() {
+        return index.frozen();
     }
 
     /**
      * Scan the classpath (recursively) for classes with the given base package and target annotation and perform
-     * the given action on them.
+     * the given action on them. When a {@link ComponentIndex} is available it is used to find the classes of the
+     * classpath roots it covers instead of scanning them; the other roots are scanned, with jar files read through the
+     * {@link #scanCache()}, if one is set.
      *
      * @param basePackage The base package to start the scan in, it must not end with a wild card;
      *                    example: com.foo.server
@@ -565,8 +905,9 @@ public class Assist implements Closeable {
         if (basePackage.endsWith("*")) {
             throw new IllegalArgumentException("base package [" + basePackage + "] must not end with '*'");
         }
-        log.info("scanning classpath under {} for @{} classes", basePackage, target.getSimpleName());
-        PackageScanner.scan(basePackage)
+        ComponentIndex componentIndex = ComponentIndex.load();
+        log.info("{} under {} for @{} classes", componentIndex != null ? "reading component index and scanning unindexed classpath" : "scanning classpath", basePackage, target.getSimpleName());
+        PackageScanner.scan(basePackage, target, scanCache, componentIndex)
                 .filter(c -> c.isAnnotationPresent(target))
                 .forEach(action);
     }
@@ -625,16 +966,73 @@ public class Assist implements Closeable {
      */
     public Object valueFor(Class<?> rawType, Type genericType, AnnotatedElement annotatedElement) {
         try {
-            for (ValueLookup valueLookup : valueLookups) {
-                Object o = valueLookup.lookup(rawType, genericType, annotatedElement);
-                if (o != null) {
-                    log.debug("value for {} was found in {}", annotatedElement, valueLookup);
-                    return o;
-                }
+            ResolvedValue resolved = resolved(annotatedElement);
+            if (resolved != null && resolved.rawType == rawType && resolved.version == resolutionVersion()) {
+                return resolvedValue(resolved, genericType, annotatedElement);
             }
+            return lookupValue(rawType, genericType, annotatedElement, 0);
         } catch (Throwable e) {
             throw new RuntimeException("error finding injectable value for: " + annotatedElement, e);
         }
+    }
+
+    /**
+     * Bind the given parameters to the resolved lookups for their values. The returned provider produces the same
+     * values as {@link #getParameterValues(Parameter[])}, but only resolves the parameters on the first call, and again
+     * whenever a provider or ValueLookup is registered; in between, the values are taken directly from the resolved
+     * lookups (for most parameters, the provider of the parameter type).
+     *
+     * @param parameters The parameters to bind
+     * @return A provider of the parameter values
+     */
+    public Provider<Object[]> bindParameters(Parameter[] parameters) {
+        return new BoundParameters(parameters);
+    }
+
+    private ResolvedValue resolved(AnnotatedElement annotatedElement) {
+        return resolvedValues.get(Reflector.getMetadata(annotatedElement).reference());
+    }
+
+    private void resolved(AnnotatedElement annotatedElement, ResolvedValue resolved) {
+        resolvedValues.put(Reflector.getMetadata(annotatedElement).reference(), resolved);
+        if (resolvedValues.size() >= sweepResolvedAt) {
+            resolvedValues.keySet().removeIf(reference -> reference.get() == null);
+            sweepResolvedAt = Math.max(256, resolvedValues.size() * 2);
+        }
+    }
+
+    // resolved values are valid until the index changes or a value lookup is registered; both versions only go up, so
+    // their sum changes whenever either does
+    private int resolutionVersion() {
+        return index.version() + valueLookupsVersion;
+    }
+
+    private Object resolvedValue(ResolvedValue resolved, Type genericType, AnnotatedElement annotatedElement) {
+        Object o = resolved.resolver != null
+                ? resolved.resolver.get()
+                : resolved.valueLookup.lookup(resolved.rawType, genericType, annotatedElement);
+        if (o != null) {
+            return o;
+        }
+        return lookupValue(resolved.rawType, genericType, annotatedElement, resolved.position + 1);
+    }
+
+    // walk the value lookups (starting at the given position), remembering the one that supplies the value so the
+    // lookups before it are skipped from then on
+    private Object lookupValue(Class<?> rawType, Type genericType, AnnotatedElement annotatedElement, int from) {
+        int version = resolutionVersion();
+        for (int i = from; i < valueLookups.size(); i++) {
+            ValueLookup valueLookup = valueLookups.get(i);
+            Provider<?> resolver = valueLookup.resolver(rawType, genericType, annotatedElement);
+            Object o = resolver != null ? resolver.get() : valueLookup.lookup(rawType, genericType, annotatedElement);
+            if (o != null) {
+                log.debug("value for {} was found in {}", annotatedElement, valueLookup);
+                if (from == 0) {
+                    resolved(annotatedElement, new ResolvedValue(rawType, resolver, valueLookup, i, version));
+                }
+                return o;
+            }
+        }
         throw new RuntimeException("internal error: no value lookup is configured");
     }
 
@@ -683,4 +1081,76 @@ public class Assist implements Closeable {
     public void autoShutdown() {
         Runtime.getRuntime().addShutdownHook(new Thread(this::close, "assist-shutdown-" + hashCode()));
     }
+
+    private final class BoundParameters implements Provider<Object[]> {
+        private final Parameter[] parameters;
+        private volatile Binding binding;
+
+        private BoundParameters(Parameter[] parameters) {
+            this.parameters = parameters;
+        }
+
+        @Override
+        public Object[] get() {
+            Binding binding = this.binding;
+            if (binding == null || binding.version != resolutionVersion()) {
+                return bind();
+            }
+            Object[] values = new Object[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                Parameter parameter = parameters[i];
+                ResolvedValue resolved = binding.resolved[i];
+                if (resolved == null) {
+                    values[i] = valueFor(parameter);
+                    continue;
+                }
+                try {
+                    values[i] = resolvedValue(resolved, parameter.getParameterizedType(), parameter);
+                } catch (Throwable e) {
+                    throw new RuntimeException("error finding injectable value for: " + parameter, e);
+                }
+            }
+            return values;
+        }
+
+        // look up the values the long way, which resolves them
+        private Object[] bind() {
+            int version = resolutionVersion();
+            Object[] values = new Object[parameters.length];
+            ResolvedValue[] resolved = new ResolvedValue[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                values[i] = valueFor(parameters[i]);
+                resolved[i] = resolved(parameters[i]);
+            }
+            this.binding = new Binding(resolved, version);
+            return values;
+        }
+    }
+
+    private static final class Binding {
+        private final ResolvedValue[] resolved;
+        private final int version;
+
+        private Binding(ResolvedValue[] resolved, int version) {
+            this.resolved = resolved;
+            this.version = version;
+        }
+    }
+
+    // the resolver, or when there is none, the lookup that is asked for the value
+    private static final class ResolvedValue {
+        private final Class<?> rawType;
+        private final Provider<?> resolver;
+        private final ValueLookup valueLookup;
+        private final int position;
+        private final int version;
+
+        private ResolvedValue(Class<?> rawType, Provider<?> resolver, ValueLookup valueLookup, int position, int version) {
+            this.rawType = rawType;
+            this.resolver = resolver;
+            this.valueLookup = valueLookup;
+            this.position = position;
+            this.version = version;
+        }
+    }
 }
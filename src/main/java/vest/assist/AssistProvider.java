@@ -2,6 +2,9 @@ package vest.assist;
 
 import javax.inject.Provider;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Type;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -14,6 +17,24 @@ public interface AssistProvider<T> extends Provider<T> {
      */
     Class<T> type();
 
+    /**
+     * The generic type provided, e.g. <code>List&lt;String&gt;</code> for a @Factory method that returns a
+     * <code>List&lt;String&gt;</code>. Providers with a fully specified parameterized type are also bound to that exact
+     * type, see {@link Assist#providerFor(Type, Annotation)}. The default is the {@link #type()}.
+     */
+    default Type genericType() {
+        return type();
+    }
+
+    /**
+     * The class of the instances created by this provider, as far as it is known without creating one, e.g. the
+     * implementation class of a provider registered with {@link Assist#addImplementingClass(Class, Class)}. Used to
+     * find the injected members of the instances up front. The default is the {@link #type()}.
+     */
+    default Class<?> implementationType() {
+        return type();
+    }
+
     /**
      * The provider qualifier, or null if there isn't one.
      */
@@ -33,4 +54,13 @@ public interface AssistProvider<T> extends Provider<T> {
 
     boolean primary();
 
+    /**
+     * The injection points (constructor or method parameters and injected fields) resolved when this provider creates
+     * an instance. Used to order eager initialization, so it only needs to describe what is known up front; the
+     * default is none.
+     */
+    default List<AnnotatedElement> dependencies() {
+        return Collections.emptyList();
+    }
+
 }
@@ -0,0 +1,338 @@
+package vest.assist;
+
+import vest.assist.annotations.Lazy;
+import vest.assist.provider.CompletableFutureValueLookup;
+import vest.assist.provider.ProviderTypeValueLookup;
+
+import javax.inject.Provider;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * The dependencies between providers, built from the injection points the providers declare (see
+ * {@link AssistProvider#dependencies()}): constructor parameters, @Factory method parameters, and @Inject fields and
+ * method parameters. Every injection point is resolved against the registered providers and {@link ValueLookup}s
+ * without creating any instances, so a graph can be used to find missing bindings and dependency cycles up front
+ * (see {@link Assist#validate()}), and to order initialization.
+ * <p>
+ * Injection points that would be satisfied by automatically creating a provider for an unregistered class (an
+ * unqualified, concrete class with an injectable constructor) are resolved to an implicit provider that is part of
+ * the graph but is never registered.
+ */
+public final class DependencyGraph {
+
+    private final Assist assist;
+    private final ProviderIndex index;
+    private final List<ValueLookup> valueLookups;
+    private final boolean opaqueLookups;
+    private final Map<AssistProvider<?>, List<Dependency>> nodes = new IdentityHashMap<>();
+    private final List<AssistProvider<?>> order = new ArrayList<>();
+    private final Map<Class<?>, Object> implicit = new HashMap<>();
+
+    DependencyGraph(Assist assist, ProviderIndex index, List<ValueLookup> valueLookups, Collection<? extends AssistProvider<?>> roots) {
+        this.assist = assist;
+        this.index = index;
+        this.valueLookups = valueLookups;
+        this.opaqueLookups = valueLookups.stream().anyMatch(DependencyGraph::opaque);
+        Deque<AssistProvider<?>> queue = new ArrayDeque<>(roots);
+        while (!queue.isEmpty()) {
+            AssistProvider<?> provider = queue.poll();
+            if (nodes.containsKey(provider)) {
+                continue;
+            }
+            List<Dependency> dependencies = new ArrayList<>();
+            for (AnnotatedElement injectionPoint : provider.dependencies()) {
+                Dependency dependency = resolve(provider, injectionPoint);
+                dependencies.add(dependency);
+                queue.addAll(dependency.providers);
+            }
+            nodes.put(provider, Collections.unmodifiableList(dependencies));
+            order.add(provider);
+        }
+    }
+
+    /**
+     * @return All providers in the graph, including the implicit providers for classes that have not been registered
+     */
+    public List<AssistProvider<?>> providers() {
+        return Collections.unmodifiableList(order);
+    }
+
+    /**
+     * Get the resolved dependencies of a provider.
+     *
+     * @param provider The provider
+     * @return The dependencies of the provider, empty if the provider is not part of this graph
+     */
+    public List<Dependency> dependencies(AssistProvider<?> provider) {
+        return nodes.getOrDefault(provider, Collections.emptyList());
+    }
+
+    /**
+     * @return All dependencies that can not be satisfied
+     */
+    public List<Dependency> unsatisfied() {
+        return order.stream()
+                .flatMap(p -> nodes.get(p).stream())
+                .filter(d -> !d.satisfied())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Find the dependency cycles in the graph. Only dependencies that need an instance when the dependent is created
+     * count; a cycle through a {@link Provider} (or @Lazy, or {@link CompletableFuture}) injection point is not a
+     * cycle.
+     *
+     * @return The cycles found, each a path of providers where the last depends on the first
+     */
+    public List<List<AssistProvider<?>>> cycles() {
+        List<List<AssistProvider<?>>> cycles = new ArrayList<>();
+        Map<AssistProvider<?>, Boolean> state = new IdentityHashMap<>();
+        Deque<AssistProvider<?>> path = new ArrayDeque<>();
+        for (AssistProvider<?> provider : order) {
+            findCycles(provider, state, path, cycles);
+        }
+        return cycles;
+    }
+
+    private void findCycles(AssistProvider<?> provider, Map<AssistProvider<?>, Boolean> state, Deque<AssistProvider<?>> path, List<List<AssistProvider<?>>> cycles) {
+        Boolean visiting = state.get(provider);
+        if (visiting != null) {
+            if (visiting) {
+                List<AssistProvider<?>> cycle = new ArrayList<>();
+                for (AssistProvider<?> p : path) {
+                    cycle.add(0, p);
+                    if (p == provider) {
+                        break;
+                    }
+                }
+                cycles.add(cycle);
+            }
+            return;
+        }
+        state.put(provider, true);
+        path.push(provider);
+        for (AssistProvider<?> dependency : immediate(provider)) {
+            findCycles(dependency, state, path, cycles);
+        }
+        path.pop();
+        state.put(provider, false);
+    }
+
+    /**
+     * Get the providers that must produce an instance for the given provider to create one, i.e. the providers of its
+     * dependencies, excluding the deferred ({@link Provider}, @Lazy and {@link CompletableFuture}) ones.
+     *
+     * @param provider The provider
+     * @return The providers the given provider needs instances from
+     */
+    public List<AssistProvider<?>> immediate(AssistProvider<?> provider) {
+        List<AssistProvider<?>> immediate = new ArrayList<>();
+        for (Dependency dependency : dependencies(provider)) {
+            if (!dependency.deferred) {
+                for (AssistProvider<?> p : dependency.providers) {
+                    if (p != provider) {
+                        immediate.add(p);
+                    }
+                }
+            }
+        }
+        return immediate;
+    }
+
+    private Dependency resolve(AssistProvider<?> source, AnnotatedElement injectionPoint) {
+        Class<?> rawType;
+        Type genericType;
+        if (injectionPoint instanceof Parameter) {
+            rawType = ((Parameter) injectionPoint).getType();
+            genericType = ((Parameter) injectionPoint).getParameterizedType();
+        } else if (injectionPoint instanceof Field) {
+            rawType = ((Field) injectionPoint).getType();
+            genericType = ((Field) injectionPoint).getGenericType();
+        } else {
+            return new Dependency(source, injectionPoint, Collections.emptyList(), false, null);
+        }
+        for (ValueLookup valueLookup : valueLookups) {
+            if (!modeled(valueLookup) && valueLookup.supports(rawType, genericType, injectionPoint)) {
+                return new Dependency(source, injectionPoint, Collections.emptyList(), false, null);
+            }
+        }
+        Annotation qualifier = Reflector.getQualifier(injectionPoint);
+        QualifierKey qualifierKey = QualifierKey.of(qualifier);
+        try {
+            boolean wrapped = rawType == Provider.class || rawType == CompletableFuture.class;
+            boolean deferred = wrapped || Reflector.getMetadata(injectionPoint).has(Lazy.class);
+            // a binding for exactly the (wrapped) parameterized type wins, the same as at runtime
+            AssistProvider<?> provider = exactProvider(wrapped ? Reflector.getTypeArgument(genericType) : genericType, qualifierKey);
+            if (provider == null) {
+                if (wrapped || Collection.class.isAssignableFrom(rawType) || rawType == Optional.class) {
+                    Class<?> realType = Reflector.getParameterizedType(genericType);
+                    if (realType == null) {
+                        return new Dependency(source, injectionPoint, Collections.emptyList(), deferred, genericType.getTypeName() + " was not defined with a specific type");
+                    }
+                    if (!deferred) {
+                        // collections and optionals are satisfied by whatever is registered, including nothing
+                        List<AssistProvider<?>> providers = index.getProviders(realType, qualifierKey)
+                                .map(ap -> (AssistProvider<?>) ap)
+                                .collect(Collectors.toList());
+                        return new Dependency(source, injectionPoint, providers, false, null);
+                    }
+                    rawType = realType;
+                }
+                provider = index.getProvider(rawType, qualifierKey);
+                if (provider == null) {
+                    provider = implicitProvider(rawType, qualifier);
+                }
+            }
+            // a @Lazy provider supplies a proxy, its own dependencies are only needed when the proxy is first used
+            deferred |= provider.annotations().stream().anyMatch(a -> a.annotationType() == Lazy.class);
+            return new Dependency(source, injectionPoint, Collections.singletonList(provider), deferred, null);
+        } catch (RuntimeException e) {
+            // a ValueLookup that can't tell what it supports may well supply the value
+            return new Dependency(source, injectionPoint, Collections.emptyList(), false, opaqueLookups ? null : e.getMessage());
+        }
+    }
+
+    // the lookups whose values the graph resolves itself, from the providers
+    private static boolean modeled(ValueLookup valueLookup) {
+        return valueLookup instanceof ProviderTypeValueLookup || valueLookup instanceof CompletableFutureValueLookup;
+    }
+
+    // a lookup that does not implement supports(...) (e.g. one written before it existed) might supply any value
+    private static boolean opaque(ValueLookup valueLookup) {
+        if (modeled(valueLookup)) {
+            return false;
+        }
+        try {
+            return valueLookup.getClass().getMethod("supports", Class.class, Type.class, AnnotatedElement.class).getDeclaringClass() == ValueLookup.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    // the provider bound to exactly the given parameterized type, null for other types
+    private AssistProvider<?> exactProvider(Type type, QualifierKey qualifier) {
+        TypeKey key = type instanceof ParameterizedType ? TypeKey.of(type) : null;
+        return key != null ? index.getProvider(key, qualifier) : null;
+    }
+
+    // the provider that would be created automatically at runtime
+    private AssistProvider<?> implicitProvider(Class<?> type, Annotation qualifier) {
+        if (qualifier != null || type.isInterface() || Modifier.isAbstract(type.getModifiers()) || type.isPrimitive()) {
+            throw new IllegalStateException("no provider for " + type.getName() + (qualifier != null ? " qualified with " + qualifier : "") + " has been registered");
+        }
+        Object provider = implicit.computeIfAbsent(type, t -> {
+            try {
+                return assist.buildConstructorProvider(t, null);
+            } catch (RuntimeException e) {
+                return e;
+            }
+        });
+        if (provider instanceof RuntimeException) {
+            throw new IllegalStateException("no provider for " + type.getName() + " has been registered, and one can not be created: " + ((RuntimeException) provider).getMessage(), (RuntimeException) provider);
+        }
+        return (AssistProvider<?>) provider;
+    }
+
+    @Override
+    public String toString() {
+        Map<AssistProvider<?>, List<AssistProvider<?>>> edges = new LinkedHashMap<>();
+        for (AssistProvider<?> provider : order) {
+            edges.put(provider, immediate(provider));
+        }
+        StringBuilder sb = new StringBuilder("DependencyGraph:");
+        edges.forEach((provider, dependencies) -> {
+            sb.append("\n ").append(provider);
+            for (AssistProvider<?> dependency : dependencies) {
+                sb.append("\n  -> ").append(dependency);
+            }
+        });
+        return sb.toString();
+    }
+
+    /**
+     * A single injection point of a provider and the providers it resolved to.
+     */
+    public static final class Dependency {
+        private final AssistProvider<?> source;
+        private final AnnotatedElement injectionPoint;
+        private final List<AssistProvider<?>> providers;
+        private final boolean deferred;
+        private final String error;
+
+        private Dependency(AssistProvider<?> source, AnnotatedElement injectionPoint, List<AssistProvider<?>> providers, boolean deferred, String error) {
+            this.source = source;
+            this.injectionPoint = injectionPoint;
+            this.providers = providers;
+            this.deferred = deferred;
+            this.error = error;
+        }
+
+        /**
+         * @return The provider that has the dependency
+         */
+        public AssistProvider<?> source() {
+            return source;
+        }
+
+        /**
+         * @return The injection point (parameter or field)
+         */
+        public AnnotatedElement injectionPoint() {
+            return injectionPoint;
+        }
+
+        /**
+         * @return The providers that will supply the value, empty if the value is supplied by a {@link ValueLookup}
+         * or can not be supplied at all
+         */
+        public List<AssistProvider<?>> providers() {
+            return providers;
+        }
+
+        /**
+         * @return true if the value is a {@link Provider}, a @Lazy proxy or a {@link CompletableFuture}, so no instance
+         * is needed when the source creates an instance
+         */
+        public boolean deferred() {
+            return deferred;
+        }
+
+        /**
+         * @return true if a value can be supplied for the injection point
+         */
+        public boolean satisfied() {
+            return error == null;
+        }
+
+        /**
+         * @return The reason the dependency can not be satisfied, null if it is satisfied
+         */
+        public String error() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return Reflector.detailString(injectionPoint) + (error != null ? ": " + error : " -> " + providers);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package vest.assist;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Provider;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Calls {@link Provider#get()} on a batch of eager providers, making sure that the eager providers an eager provider
+ * depends on (directly, or through any number of non-eager providers) are initialized first. With an executor,
+ * providers that do not depend on each other are initialized concurrently; without one, they are initialized one at a
+ * time in dependency order, stopping at the first failure. The order comes from the {@link DependencyGraph} of the eager providers; dependencies that
+ * are deferred ({@link Provider} injection) or unresolvable do not constrain it.
+ * <p>
+ * Also used by {@link Assist#instanceAsync(Class, Annotation)} to create the singletons an instance depends on
+ * concurrently before creating the instance itself.
+ */
+final class EagerInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(EagerInitializer.class);
+
+    private final Plan plan;
+    private final Executor executor;
+    private final Map<AssistProvider<?>, CompletableFuture<Object>> futures = new IdentityHashMap<>();
+    private final Map<AssistProvider<?>, Long> timings = Collections.synchronizedMap(new IdentityHashMap<>());
+    // serial only: the future of the first provider that failed, the providers after it are not initialized
+    private CompletableFuture<Object> failed;
+
+    EagerInitializer(Plan plan, Executor executor) {
+        this.plan = plan;
+        this.executor = executor;
+    }
+
+    void initialize() {
+        if (plan.providers.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        start();
+        try {
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException("eager initialization failed", cause);
+        }
+        report(System.nanoTime() - start);
+    }
+
+    /**
+     * Start getting the instances of the providers of the plan, each after the providers of the plan it depends on.
+     *
+     * @return The future instance for each of the providers
+     */
+    Map<AssistProvider<?>, CompletableFuture<Object>> start() {
+        for (AssistProvider<?> provider : plan.providers) {
+            schedule(provider, Collections.newSetFromMap(new IdentityHashMap<>()));
+        }
+        return futures;
+    }
+
+    private CompletableFuture<Object> schedule(AssistProvider<?> provider, Set<AssistProvider<?>> path) {
+        CompletableFuture<Object> future = futures.get(provider);
+        if (future != null) {
+            return future;
+        }
+        if (failed != null) {
+            futures.put(provider, failed);
+            return failed;
+        }
+        path.add(provider);
+        List<CompletableFuture<Object>> prerequisites = new ArrayList<>();
+        for (AssistProvider<?> dependency : plan.eagerDependencies.get(provider)) {
+            // a cycle is left for the providers to sort out (or fail on) at runtime
+            if (!path.contains(dependency)) {
+                prerequisites.add(schedule(dependency, path));
+            }
+        }
+        path.remove(provider);
+        CompletableFuture<Void> after = CompletableFuture.allOf(prerequisites.toArray(new CompletableFuture[0]));
+        if (executor != null) {
+            future = after.thenApplyAsync(v -> initialize(provider), executor);
+        } else {
+            // the prerequisites are complete, so this runs (or fails) right away
+            future = after.thenApply(v -> initialize(provider));
+            if (future.isCompletedExceptionally() && failed == null) {
+                failed = future;
+            }
+        }
+        futures.put(provider, future);
+        return future;
+    }
+
+    private Object initialize(AssistProvider<?> provider) {
+        long start = System.nanoTime();
+        Object instance = provider.get();
+        timings.put(provider, System.nanoTime() - start);
+        return instance;
+    }
+
+    private void report(long total) {
+        log.info("initialized {} eager providers in {}ms{}", timings.size(), total / 1_000_000, executor != null ? " using " + executor : "");
+        List<Map.Entry<AssistProvider<?>, Long>> sorted;
+        synchronized (timings) {
+            sorted = new ArrayList<>(timings.entrySet());
+        }
+        sorted.sort(Map.Entry.<AssistProvider<?>, Long>comparingByValue().reversed());
+        for (Map.Entry<AssistProvider<?>, Long> entry : sorted) {
+            log.info("  {}ms {}", String.format("%.3f", entry.getValue() / 1_000_000D), entry.getKey());
+        }
+    }
+
+    /**
+     * The order to initialize a batch of providers in: for each provider, the providers of the batch it depends on
+     * (directly, or through any number of providers outside the batch). A plan only reads the dependency graph, so it
+     * can be kept and started again for as long as the bindings it was computed from do not change.
+     */
+    static final class Plan {
+        private final List<AssistProvider<?>> providers;
+        private final Map<AssistProvider<?>, Set<AssistProvider<?>>> eagerDependencies = new IdentityHashMap<>();
+        private final int version;
+
+        /**
+         * @param graph     The dependency graph of (at least) the providers
+         * @param providers The providers to initialize
+         * @param version   The version of the bindings the graph was built from, see {@link #version()}
+         */
+        Plan(DependencyGraph graph, List<AssistProvider<?>> providers, int version) {
+            this.providers = providers;
+            this.version = version;
+            for (AssistProvider<?> provider : providers) {
+                eagerDependencies.put(provider, Collections.newSetFromMap(new IdentityHashMap<>()));
+            }
+            for (AssistProvider<?> provider : providers) {
+                collectEagerDependencies(graph, provider, provider, Collections.newSetFromMap(new IdentityHashMap<>()));
+            }
+        }
+
+        /**
+         * @return The version of the bindings this plan was computed from
+         */
+        int version() {
+            return version;
+        }
+
+        // walk the dependencies of the given provider, through providers outside the batch, recording the providers of the
+        // batch found
+        private void collectEagerDependencies(DependencyGraph graph, AssistProvider<?> root, AssistProvider<?> provider, Set<AssistProvider<?>> visited) {
+            if (!visited.add(provider)) {
+                return;
+            }
+            for (AssistProvider<?> target : graph.immediate(provider)) {
+                if (target == root) {
+                    continue;
+                }
+                if (eagerDependencies.containsKey(target)) {
+                    eagerDependencies.get(root).add(target);
+                } else {
+                    collectEagerDependencies(graph, root, target, visited);
+                }
+            }
+        }
+    }
+}
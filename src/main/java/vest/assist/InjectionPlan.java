@@ -0,0 +1,224 @@
+package vest.assist;
+
+import vest.assist.annotations.Property;
+import vest.assist.annotations.Scheduled;
+
+import javax.inject.Inject;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The compiled post-instantiation injection steps for a type. Built once per class (see {@link Reflector#injectionPlan()})
+ * so that injecting an instance only touches the members that actually need work instead of re-scanning every field and
+ * method of the hierarchy. Members are listed in injection order: superclass members before subclass members, and all
+ * fields before methods. Fields and methods that are injected are pre-bound to {@link MethodHandle}s when the plan is
+ * built, so injection does not pay for reflective access checks on every instance.
+ */
+public final class InjectionPlan {
+
+    private final Class<?> type;
+    private final List<FieldInjector> propertyFields;
+    private final List<FieldInjector> injectFields;
+    private final List<MethodInjector> injectMethods;
+    private final List<Method> scheduledMethods;
+
+    InjectionPlan(Reflector reflector) {
+        this.type = reflector.type();
+        List<FieldInjector> properties = new ArrayList<>(4);
+        List<FieldInjector> inject = new ArrayList<>(8);
+        for (Field field : reflector.fields(Inject.class)) {
+            inject.add(new FieldInjector(field));
+        }
+        for (Field field : reflector.fields(Property.class)) {
+            // @Inject @Property fields are looked up through the ValueLookup chain along with the other @Inject fields
+            if (!Reflector.getMetadata(field).has(Inject.class)) {
+                properties.add(new FieldInjector(field));
+            }
+        }
+        List<MethodInjector> methods = new ArrayList<>(4);
+        for (Method method : reflector.methods(Inject.class)) {
+            methods.add(new MethodInjector(method));
+        }
+        this.propertyFields = immutable(properties);
+        this.injectFields = immutable(inject);
+        this.injectMethods = immutable(methods);
+        this.scheduledMethods = reflector.methods(Scheduled.class);
+    }
+
+    /**
+     * @return The type this plan was compiled for
+     */
+    public Class<?> type() {
+        return type;
+    }
+
+    /**
+     * @return The fields marked with {@link Property} that are not also marked with {@link Inject}
+     */
+    public List<FieldInjector> propertyFields() {
+        return propertyFields;
+    }
+
+    /**
+     * @return The fields marked with {@link Inject}
+     */
+    public List<FieldInjector> injectFields() {
+        return injectFields;
+    }
+
+    /**
+     * @return The methods marked with {@link Inject}; overridden methods are only listed once
+     */
+    public List<MethodInjector> injectMethods() {
+        return injectMethods;
+    }
+
+    /**
+     * @return The methods marked with {@link Scheduled}
+     */
+    public List<Method> scheduledMethods() {
+        return scheduledMethods;
+    }
+
+    @Override
+    public String toString() {
+        return "InjectionPlan[" + type
+                + ", properties=" + propertyFields.size()
+                + ", fields=" + injectFields.size()
+                + ", methods=" + injectMethods.size()
+                + ", scheduled=" + scheduledMethods.size() + "]";
+    }
+
+    private static <T> List<T> immutable(List<T> list) {
+        return list.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Sets the value of a field, static or otherwise, through a pre-bound setter.
+     */
+    public static final class FieldInjector {
+        private static final MethodHandle FIELD_SET;
+
+        static {
+            try {
+                FIELD_SET = MethodHandles.lookup().findVirtual(Field.class, "set", MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final Field field;
+        private final MemberMetadata metadata;
+        private final MethodHandle setter;
+
+        FieldInjector(Field field) {
+            Reflector.makeAccessible(field);
+            this.field = field;
+            this.metadata = Reflector.getMetadata(field);
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.lookup().unreflectSetter(field);
+                if (Modifier.isStatic(field.getModifiers())) {
+                    handle = MethodHandles.dropArguments(handle, 0, Object.class);
+                }
+            } catch (IllegalAccessException e) {
+                // final fields can not be unreflected, fall back to the reflective setter
+                handle = FIELD_SET.bindTo(field);
+            }
+            this.setter = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        }
+
+        /**
+         * @return The field that is injected
+         */
+        public Field field() {
+            return field;
+        }
+
+        /**
+         * @return The annotation metadata of the field
+         */
+        public MemberMetadata metadata() {
+            return metadata;
+        }
+
+        /**
+         * Set the field value on the given instance.
+         *
+         * @param instance The instance to set the field on, ignored for static fields
+         * @param value    The value to set
+         * @throws Throwable if the value can not be assigned to the field
+         */
+        public void set(Object instance, Object value) throws Throwable {
+            setter.invokeExact(instance, value);
+        }
+
+        @Override
+        public String toString() {
+            return Reflector.detailString(field);
+        }
+    }
+
+    /**
+     * Invokes an injectable method, static or otherwise, through a pre-bound method handle.
+     */
+    public static final class MethodInjector {
+        private final Method method;
+        private final Parameter[] parameters;
+        private final MethodHandle invoker;
+
+        MethodInjector(Method method) {
+            Reflector.makeAccessible(method);
+            this.method = method;
+            this.parameters = method.getParameters();
+            try {
+                MethodHandle handle = MethodHandles.lookup().unreflect(method);
+                if (Modifier.isStatic(method.getModifiers())) {
+                    handle = MethodHandles.dropArguments(handle, 0, Object.class);
+                }
+                this.invoker = handle.asSpreader(Object[].class, parameters.length)
+                        .asType(MethodType.methodType(void.class, Object.class, Object[].class));
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("unable to build method handle for: " + Reflector.detailString(method), e);
+            }
+        }
+
+        /**
+         * @return The method that is invoked
+         */
+        public Method method() {
+            return method;
+        }
+
+        /**
+         * @return The parameters of the method
+         */
+        public Parameter[] parameters() {
+            return parameters;
+        }
+
+        /**
+         * Invoke the method on the given instance.
+         *
+         * @param instance The instance to invoke the method on, ignored for static methods
+         * @param args     The arguments for the method
+         * @throws Throwable anything thrown by the method itself
+         */
+        public void invoke(Object instance, Object[] args) throws Throwable {
+            invoker.invokeExact(instance, args);
+        }
+
+        @Override
+        public String toString() {
+            return Reflector.detailString(method);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package vest.assist;
+
+import vest.assist.annotations.Eager;
+import vest.assist.annotations.Factory;
+import vest.assist.annotations.Lazy;
+import vest.assist.annotations.Primary;
+import vest.assist.annotations.Property;
+import vest.assist.annotations.Scheduled;
+import vest.assist.annotations.SkipInjection;
+import vest.assist.event.EventListener;
+
+import javax.inject.Inject;
+import javax.inject.Qualifier;
+import java.lang.annotation.Annotation;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.AnnotatedElement;
+
+/**
+ * The annotations on a class, field, method, constructor or parameter that Assist cares about, read once (see
+ * {@link Reflector#getMetadata(AnnotatedElement)}). The presence of the framework annotations (@Inject, @Property,
+ * @Lazy, @Scheduled, @EventListener, @Factory, @SkipInjection, @Eager and @Primary) is kept in a bitset along with
+ * their instances, so checking for them does not go through the JDK annotation maps; other annotation types are
+ * looked up on the element itself.
+ */
+public final class MemberMetadata {
+
+    @SuppressWarnings("unchecked")
+    private static final Class<? extends Annotation>[] KNOWN = new Class[]{
+            Inject.class,
+            Property.class,
+            Lazy.class,
+            Scheduled.class,
+            EventListener.class,
+            Factory.class,
+            SkipInjection.class,
+            Eager.class,
+            Primary.class
+    };
+
+    private static int indexOf(Class<? extends Annotation> annotationType) {
+        for (int i = 0; i < KNOWN.length; i++) {
+            if (KNOWN[i] == annotationType) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private final AnnotatedElement element;
+    private final int present;
+    private final Annotation[] annotations;
+    private final Annotation qualifier;
+    private final Reference<MemberMetadata> reference = new WeakReference<>(this);
+
+    MemberMetadata(AnnotatedElement element) {
+        this.element = element;
+        Annotation[] known = new Annotation[KNOWN.length];
+        int bits = 0;
+        Annotation qualifier = null;
+        for (Annotation annotation : element.getAnnotations()) {
+            int i = indexOf(annotation.annotationType());
+            if (i >= 0) {
+                bits |= 1 << i;
+                known[i] = annotation;
+            } else if (qualifier == null && Reflector.isExtendedBy(annotation, Qualifier.class)) {
+                qualifier = annotation;
+            }
+        }
+        this.present = bits;
+        this.annotations = known;
+        this.qualifier = qualifier;
+    }
+
+    /**
+     * @return The element this metadata was read from
+     */
+    public AnnotatedElement element() {
+        return element;
+    }
+
+    /**
+     * Check if an annotation is present on the element.
+     *
+     * @param annotationType The annotation type
+     * @return true if the annotation is present
+     */
+    public boolean has(Class<? extends Annotation> annotationType) {
+        int i = indexOf(annotationType);
+        return i >= 0 ? (present & (1 << i)) != 0 : element.isAnnotationPresent(annotationType);
+    }
+
+    /**
+     * Get an annotation of the element.
+     *
+     * @param annotationType The annotation type
+     * @return The annotation, or null if it is not present
+     */
+    @SuppressWarnings("unchecked")
+    public <A extends Annotation> A annotation(Class<A> annotationType) {
+        int i = indexOf(annotationType);
+        return i >= 0 ? (A) annotations[i] : element.getAnnotation(annotationType);
+    }
+
+    /**
+     * @return The first qualifier annotation on the element, or null if it has none; see
+     * {@link Reflector#getQualifier(AnnotatedElement)}
+     */
+    public Annotation qualifier() {
+        return qualifier;
+    }
+
+    // a weak reference to this metadata, the same for every call, for keying caches that must not hold on to the element
+    Reference<MemberMetadata> reference() {
+        return reference;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("MemberMetadata[").append(Reflector.detailString(element));
+        for (int i = 0; i < KNOWN.length; i++) {
+            if (annotations[i] != null) {
+                sb.append(", @").append(KNOWN[i].getSimpleName());
+            }
+        }
+        if (qualifier != null) {
+            sb.append(", ").append(qualifier);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -4,121 +4,488 @@ import vest.assist.provider.PrimaryProvider;
 
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiFunction;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+/**
+ * Indexes registered providers by every type in their hierarchy. Writes are serialized and build the (mutable,
+ * writer-only) node tree, then publish a new immutable {@link Snapshot} through a single volatile reference. Reads
+ * only ever see a fully built snapshot and never take a lock. A batch of providers (e.g. all the @Factory methods of a
+ * configuration) is registered with one write that publishes one snapshot.
+ * <p>
+ * Each snapshot also carries the resolved binding for every type/qualifier combination, so resolving a provider is a
+ * type probe followed by a qualifier probe; the resolutions are rebuilt only when {@link #setProvider(AssistProvider)}
+ * changes the index. Qualifiers are indexed by their interned {@link QualifierKey}, never by the annotation itself.
+ * <p>
+ * Providers of a fully specified parameterized type (see {@link AssistProvider#genericType()}) are additionally bound
+ * to the interned {@link TypeKey} of that exact type; in the node tree they sit in a child of the node of their raw
+ * type, so providers of the same raw type but different type arguments do not conflict.
+ * <p>
+ * Providers that are created on demand ({@link #getOrCreate}) are built outside the write lock, so different types can
+ * be built at the same time; callers asking for a type that is already being built wait for that one build.
+ * <p>
+ * Once {@link #freeze() frozen}, the index no longer changes: every resolved binding is compiled into a single
+ * open-addressing table, resolving a provider is one probe of that table, and registering a provider fails.
+ * <p>
+ * A child index (see {@link Assist#child()}) only holds its own providers; lookups that find nothing in it fall through
+ * to its frozen parent, and the providers of the parent are shadowed by the child's providers with the same
+ * type/qualifier binding.
+ */
 class ProviderIndex {
 
+    private static final AssistProvider[] EMPTY = new AssistProvider[0];
+    private static final Bindings NO_BINDINGS = new Bindings(EMPTY);
+
     private final Node root = new Node();
     private final Map<Class, List<Node>> inverse = new HashMap<>(128);
-    private final Map<Class<? extends Annotation>, Collection<AssistProvider>> annotationTypeToProvider = new HashMap<>(128);
+    private final Map<Class<? extends Annotation>, Set<AssistProvider>> annotationTypeToProvider = new HashMap<>(128);
     private final Lock writeLock = new ReentrantLock();
-    private int size = 0;
+    private final Map<CreationKey, Creation> creations = new ConcurrentHashMap<>(16);
+    private final ProviderIndex parent;
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), EMPTY, 0, 0, null);
 
     ProviderIndex() {
+        this.parent = null;
+    }
+
+    ProviderIndex(ProviderIndex parent) {
+        if (!parent.frozen()) {
+            throw new IllegalStateException("the parent of a child index must be frozen");
+        }
+        this.parent = parent;
     }
 
     void setProvider(AssistProvider<?> provider) {
+        setProviders(Collections.singletonList(provider));
+    }
+
+    // register a batch of providers with a single publish; if one of them is rejected, the ones before it stay registered
+    void setProviders(Collection<? extends AssistProvider<?>> providers) {
+        if (providers.isEmpty()) {
+            return;
+        }
         writeLock.lock();
         try {
-            Node temp = root;
-            for (Class type : Reflector.of(provider.type()).hierarchy()) {
-                temp = temp.getOrCreate(type);
-                inverse.computeIfAbsent(type, v -> new ArrayList<>(3)).add(temp);
+            if (snapshot.table != null) {
+                throw new IllegalStateException("assist has been frozen, " + providers.iterator().next() + " can not be registered");
             }
-            temp.putProvider(provider);
+            Changes changes = new Changes();
+            try {
+                for (AssistProvider<?> provider : providers) {
+                    put(provider, changes);
+                }
+            } finally {
+                publish(changes);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
 
-            for (Annotation annotation : provider.annotations()) {
-                annotationTypeToProvider.computeIfAbsent(annotation.annotationType(), a -> new HashSet<>(8)).add(provider);
+    // like setProviders, skipping the providers whose type/qualifier can already be resolved, which are returned instead
+    List<AssistProvider> setProvidersIfAbsent(List<? extends AssistProvider<?>> providers) {
+        List<AssistProvider> result = new ArrayList<>(providers.size());
+        List<AssistProvider<?>> absent = new ArrayList<>(providers.size());
+        writeLock.lock();
+        try {
+            for (AssistProvider<?> provider : providers) {
+                AssistProvider existing = getProvider(provider.type(), QualifierKey.of(provider.qualifier()));
+                if (existing == null) {
+                    absent.add(provider);
+                }
+                result.add(existing != null ? existing : provider);
             }
-            size++;
+            setProviders(absent);
         } finally {
             writeLock.unlock();
         }
+        return result;
+    }
+
+    private void put(AssistProvider<?> provider, Changes changes) {
+        Collection<Class> hierarchy = Reflector.of(provider.type()).hierarchy();
+        Node temp = root;
+        for (Class type : hierarchy) {
+            temp = temp.getOrCreate(type);
+            List<Node> nodes = inverse.computeIfAbsent(type, v -> new ArrayList<>(3));
+            if (!nodes.contains(temp)) {
+                nodes.add(temp);
+            }
+        }
+        TypeKey genericType = TypeKey.of(provider.genericType());
+        if (genericType != null && genericType.parameterized()) {
+            temp = temp.getOrCreate(genericType);
+            changes.genericTypes.put(genericType, temp);
+        }
+        temp.putProvider(provider, QualifierKey.of(provider.qualifier()), changes.added);
+        changes.types.addAll(hierarchy);
+
+        for (Annotation annotation : provider.annotations()) {
+            annotationTypeToProvider.computeIfAbsent(annotation.annotationType(), a -> new LinkedHashSet<>(8)).add(provider);
+            changes.annotationTypes.add(annotation.annotationType());
+        }
+        changes.count++;
     }
 
-    AssistProvider getProvider(Class type, Annotation qualifier) {
-        return Optional.ofNullable(inverse.get(type))
-                .orElse(Collections.emptyList())
-                .stream()
-                .map(n -> n.getProvider(qualifier))
-                .filter(Objects::nonNull)
-                .findFirst()
-                .orElse(null);
+    AssistProvider getProvider(Class type, QualifierKey qualifier) {
+        Snapshot current = snapshot;
+        AssistProvider provider = current.table != null
+                ? current.table.get(type, qualifier)
+                : current.bindings(type).resolved.get(qualifier);
+        return provider != null || parent == null ? provider : parent.getProvider(type, qualifier);
     }
 
-    AssistProvider getOrCreate(Class type, Annotation qualifier, BiFunction<Class, Annotation, AssistProvider<?>> function) {
+    // the provider bound to exactly the given parameterized type, no supertypes or raw types are considered
+    AssistProvider getProvider(TypeKey type, QualifierKey qualifier) {
+        if (!type.parameterized()) {
+            return getProvider(type.rawType(), qualifier);
+        }
+        Snapshot current = snapshot;
+        AssistProvider provider;
+        if (current.table != null) {
+            provider = current.table.get(type, qualifier);
+        } else {
+            Bindings bindings = current.byGenericType.get(type);
+            provider = bindings != null ? bindings.resolved.get(qualifier) : null;
+        }
+        return provider != null || parent == null ? provider : parent.getProvider(type, qualifier);
+    }
+
+    // only callers asking for the same type/qualifier wait on each other, the provider is built outside the write lock
+    AssistProvider getOrCreate(Class type, QualifierKey qualifier, BiFunction<Class, Annotation, AssistProvider<?>> function) {
         AssistProvider provider = getProvider(type, qualifier);
         if (provider != null) {
             return provider;
         }
-        writeLock.lock();
+        if (frozen()) {
+            throw new IllegalStateException("no provider for " + type.getName() + (qualifier != null ? " qualified with " + qualifier : "") + " has been registered, and assist has been frozen");
+        }
+        CreationKey key = new CreationKey(type, qualifier);
+        Creation creation = new Creation();
+        Creation inFlight = creations.putIfAbsent(key, creation);
+        if (inFlight != null) {
+            return inFlight.await(type, qualifier);
+        }
         try {
             provider = getProvider(type, qualifier);
             if (provider == null) {
-                AssistProvider ap = function.apply(type, qualifier);
-                setProvider(ap);
-                return ap;
+                AssistProvider<?> built = function.apply(type, qualifier != null ? qualifier.annotation() : null);
+                writeLock.lock();
+                try {
+                    // the provider may have been registered directly while it was being built
+                    provider = getProvider(type, qualifier);
+                    if (provider == null) {
+                        setProvider(built);
+                        provider = built;
+                    }
+                } finally {
+                    writeLock.unlock();
+                }
             }
+            creation.complete(provider);
             return provider;
+        } catch (Throwable e) {
+            creation.completeExceptionally(e);
+            throw e;
         } finally {
-            writeLock.unlock();
+            creations.remove(key, creation);
         }
     }
 
     Stream<AssistProvider> getProviders(Class type) {
-        return Optional.ofNullable(inverse.get(type))
-                .orElse(Collections.emptyList())
-                .stream()
-                .flatMap(Node::getProviders)
-                .distinct();
+        return withInherited(snapshot.bindings(type).providers, () -> parent.getProviders(type));
+    }
+
+    Stream<AssistProvider> getProviders(Class type, QualifierKey qualifier) {
+        return withInherited(snapshot.bindings(type).qualified.getOrDefault(qualifier, EMPTY), () -> parent.getProviders(type, qualifier));
     }
 
     Stream<AssistProvider> getProvidersWithAnnotation(Class<? extends Annotation> type) {
-        return annotationTypeToProvider.getOrDefault(type, Collections.emptyList()).stream();
+        return withInherited(snapshot.byAnnotation.getOrDefault(type, EMPTY), () -> parent.getProvidersWithAnnotation(type));
     }
 
-    boolean exists(Class type, Annotation qualifier) {
+    boolean exists(Class type, QualifierKey qualifier) {
         return getProvider(type, qualifier) != null;
     }
 
     Stream<AssistProvider> allProviders() {
-        return root.getProviders();
+        return withInherited(snapshot.all, parent != null ? parent::allProviders : null);
     }
 
     int size() {
-        return size;
+        return parent == null ? snapshot.size : (int) allProviders().count();
+    }
+
+    // this index's providers followed by the parent's that it does not shadow: a provider of the parent is shadowed when
+    // this index resolves the provider's own type and qualifier itself (with a provider of that type or a subtype), the
+    // same rule getProvider follows; every lookup of a child goes through here
+    private Stream<AssistProvider> withInherited(AssistProvider[] providers, Supplier<Stream<AssistProvider>> inherited) {
+        if (parent == null) {
+            return Arrays.stream(providers);
+        }
+        Snapshot current = snapshot;
+        return Stream.concat(Arrays.stream(providers),
+                inherited.get().filter(p -> !current.bindings(p.type()).qualified.containsKey(QualifierKey.of(p.qualifier()))));
+    }
+
+    /**
+     * @return A number that changes every time the index changes; anything resolved against the index at one version
+     * is still valid for as long as the version stays the same
+     */
+    int version() {
+        return snapshot.version;
+    }
+
+    /**
+     * Compile the bindings into a read-only lookup table and reject any further changes. The version does not change,
+     * anything resolved before freezing stays valid.
+     */
+    void freeze() {
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current.table == null) {
+                snapshot = new Snapshot(current.byType, current.byGenericType, current.byAnnotation, current.all, current.size, current.version, new Table(current.byType, current.byGenericType));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    boolean frozen() {
+        return snapshot.table != null;
+    }
+
+    // only the nodes along the new providers' hierarchy paths have changed, so only those types are re-flattened;
+    // everything else is shared with the previous snapshot
+    private void publish(Changes changes) {
+        if (changes.count == 0) {
+            return;
+        }
+        Snapshot current = snapshot;
+        Map<Class, Bindings> byType = new HashMap<>(current.byType);
+        for (Class type : changes.types) {
+            byType.put(type, new Bindings(flatten(inverse.get(type))));
+        }
+        Map<TypeKey, Bindings> byGenericType = current.byGenericType;
+        if (!changes.genericTypes.isEmpty()) {
+            byGenericType = new HashMap<>(byGenericType);
+            for (Map.Entry<TypeKey, Node> entry : changes.genericTypes.entrySet()) {
+                byGenericType.put(entry.getKey(), new Bindings(flatten(Collections.singletonList(entry.getValue()))));
+            }
+        }
+        Map<Class<? extends Annotation>, AssistProvider[]> byAnnotation = current.byAnnotation;
+        if (!changes.annotationTypes.isEmpty()) {
+            byAnnotation = new HashMap<>(byAnnotation);
+            for (Class<? extends Annotation> annotationType : changes.annotationTypes) {
+                byAnnotation.put(annotationType, annotationTypeToProvider.get(annotationType).toArray(EMPTY));
+            }
+        }
+        AssistProvider[] all = Arrays.copyOf(current.all, current.all.length + changes.added.size());
+        for (int i = 0; i < changes.added.size(); i++) {
+            all[current.all.length + i] = changes.added.get(i);
+        }
+        snapshot = new Snapshot(byType, byGenericType, byAnnotation, all, current.size + changes.count, current.version + 1, null);
+    }
+
+    private static AssistProvider[] flatten(List<Node> nodes) {
+        Set<AssistProvider> distinct = new LinkedHashSet<>();
+        for (Node node : nodes) {
+            node.collect(distinct);
+        }
+        return distinct.toArray(EMPTY);
+    }
+
+    // what a batch of registrations has changed in the node tree
+    private static final class Changes {
+        private final Set<Class> types = new LinkedHashSet<>();
+        private final Map<TypeKey, Node> genericTypes = new HashMap<>(4);
+        private final Set<Class<? extends Annotation>> annotationTypes = new LinkedHashSet<>();
+        private final List<AssistProvider> added = new ArrayList<>();
+        private int count = 0;
+    }
+
+    private static final class Snapshot {
+        private final Map<Class, Bindings> byType;
+        private final Map<TypeKey, Bindings> byGenericType;
+        private final Map<Class<? extends Annotation>, AssistProvider[]> byAnnotation;
+        private final AssistProvider[] all;
+        private final int size;
+        private final int version;
+        private final Table table;
+
+        private Snapshot(Map<Class, Bindings> byType, Map<TypeKey, Bindings> byGenericType, Map<Class<? extends Annotation>, AssistProvider[]> byAnnotation, AssistProvider[] all, int size, int version, Table table) {
+            this.byType = byType;
+            this.byGenericType = byGenericType;
+            this.byAnnotation = byAnnotation;
+            this.all = all;
+            this.size = size;
+            this.version = version;
+            this.table = table;
+        }
+
+        Bindings bindings(Class type) {
+            Bindings bindings = byType.get(type);
+            return bindings != null ? bindings : NO_BINDINGS;
+        }
+    }
+
+    private static final class Bindings {
+        private final AssistProvider[] providers;
+        private final Map<QualifierKey, AssistProvider> resolved;
+        private final Map<QualifierKey, AssistProvider[]> qualified;
+
+        private Bindings(AssistProvider[] providers) {
+            this.providers = providers;
+            // the first provider (in hierarchy order) with a given qualifier is the one that resolves it
+            Map<QualifierKey, AssistProvider> temp = new HashMap<>((int) (providers.length / .75F) + 1);
+            Map<QualifierKey, List<AssistProvider>> all = new HashMap<>((int) (providers.length / .75F) + 1);
+            for (AssistProvider provider : providers) {
+                QualifierKey qualifier = QualifierKey.of(provider.qualifier());
+                temp.putIfAbsent(qualifier, provider);
+                all.computeIfAbsent(qualifier, q -> new ArrayList<>(2)).add(provider);
+            }
+            this.resolved = temp;
+            this.qualified = new HashMap<>((int) (all.size() / .75F) + 1);
+            all.forEach((qualifier, list) -> qualified.put(qualifier, list.toArray(EMPTY)));
+        }
+    }
+
+    // every type/qualifier binding (including primary aliases, under the null qualifier, every supertype, and the exact
+    // parameterized types under their TypeKey) packed into one array of type, qualifier, provider triples; linear
+    // probing, at most half full so misses end quickly
+    private static final class Table {
+        private final Object[] entries;
+        private final int mask;
+
+        private Table(Map<Class, Bindings> byType, Map<TypeKey, Bindings> byGenericType) {
+            int count = 0;
+            for (Bindings bindings : byType.values()) {
+                count += bindings.resolved.size();
+            }
+            for (Bindings bindings : byGenericType.values()) {
+                count += bindings.resolved.size();
+            }
+            int capacity = Integer.highestOneBit(Math.max(count, 1) * 2 - 1) << 1;
+            this.entries = new Object[capacity * 3];
+            this.mask = capacity - 1;
+            byType.forEach(this::put);
+            byGenericType.forEach(this::put);
+        }
+
+        private void put(Object type, Bindings bindings) {
+            bindings.resolved.forEach((qualifier, provider) -> {
+                int i = index(type, qualifier);
+                while (entries[i] != null) {
+                    i = (i + 3) % entries.length;
+                }
+                entries[i] = type;
+                entries[i + 1] = qualifier;
+                entries[i + 2] = provider;
+            });
+        }
+
+        // the type is either a Class or a TypeKey, both compared by identity
+        AssistProvider get(Object type, QualifierKey qualifier) {
+            for (int i = index(type, qualifier); ; i = (i + 3) % entries.length) {
+                Object t = entries[i];
+                if (t == null) {
+                    return null;
+                }
+                if (t == type && entries[i + 1] == qualifier) {
+                    return (AssistProvider) entries[i + 2];
+                }
+            }
+        }
+
+        private int index(Object type, QualifierKey qualifier) {
+            int h = (System.identityHashCode(type) * 31 + System.identityHashCode(qualifier)) * 0x9E3779B9;
+            return ((h ^ (h >>> 16)) & mask) * 3;
+        }
+    }
+
+    private static final class CreationKey {
+        private final Class type;
+        private final QualifierKey qualifier;
+
+        private CreationKey(Class type, QualifierKey qualifier) {
+            this.type = type;
+            this.qualifier = qualifier;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CreationKey)) {
+                return false;
+            }
+            CreationKey that = (CreationKey) o;
+            return type == that.type && qualifier == that.qualifier;
+        }
+
+        @Override
+        public int hashCode() {
+            return type.hashCode() * 31 + System.identityHashCode(qualifier);
+        }
+    }
+
+    // a provider being built by one thread, that other threads asking for the same type/qualifier wait for
+    private static final class Creation extends CompletableFuture<AssistProvider> {
+        private final Thread builder = Thread.currentThread();
+
+        AssistProvider await(Class type, QualifierKey qualifier) {
+            if (builder == Thread.currentThread()) {
+                throw new IllegalStateException("circular provider creation for " + type.getName() + (qualifier != null ? " qualified with " + qualifier : ""));
+            }
+            try {
+                return join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
     }
 
     private static final class Node {
         private Map<Class, Node> sub;
-        private Map<Annotation, AssistProvider> providers;
+        private Map<TypeKey, Node> generic;
+        private Map<QualifierKey, AssistProvider> providers;
 
         @SuppressWarnings("unchecked")
-        void putProvider(AssistProvider provider) {
+        void putProvider(AssistProvider provider, QualifierKey qualifier, List<AssistProvider> added) {
             if (providers == null) {
                 providers = new HashMap<>(16);
             }
-            if (providers.containsKey(provider.qualifier())) {
+            if (providers.containsKey(qualifier)) {
                 throw new IllegalArgumentException("there is already a provider registered under: " + provider.qualifier() + ":" + provider.type());
             }
-            providers.put(provider.qualifier(), provider);
-
-            if (provider.qualifier() != null && provider.primary()) {
-                if (providers.containsKey(null)) {
-                    throw new IllegalArgumentException("there is already a primary provider registered for type: " + provider.type());
-                }
-                providers.putIfAbsent(null, new PrimaryProvider<>(provider));
+            if (qualifier != null && provider.primary() && providers.containsKey(null)) {
+                throw new IllegalArgumentException("there is already a primary provider registered for type: " + provider.type());
+            }
+            providers.put(qualifier, provider);
+            added.add(provider);
+            if (qualifier != null && provider.primary()) {
+                PrimaryProvider primary = new PrimaryProvider<>(provider);
+                providers.put(null, primary);
+                added.add(primary);
             }
         }
 
@@ -129,36 +496,28 @@ class ProviderIndex {
             return sub.computeIfAbsent(type, t -> new Node());
         }
 
-        AssistProvider getProvider(Annotation qualifier) {
-            if (providers != null && providers.containsKey(qualifier)) {
-                AssistProvider provider = providers.get(qualifier);
-                if (provider != null) {
-                    return provider;
-                }
+        Node getOrCreate(TypeKey genericType) {
+            if (generic == null) {
+                generic = new HashMap<>(4);
             }
-            if (sub != null) {
-                for (Node value : sub.values()) {
-                    AssistProvider provider = value.getProvider(qualifier);
-                    if (provider != null) {
-                        return provider;
-                    }
-                }
-            }
-            return null;
+            return generic.computeIfAbsent(genericType, t -> new Node());
         }
 
-        Stream<AssistProvider> getProviders() {
-            Stream<AssistProvider> prim = Stream.empty();
+        <C extends Collection<AssistProvider>> C collect(C target) {
             if (providers != null) {
-                prim = providers.values().stream();
+                target.addAll(providers.values());
             }
-            Stream<AssistProvider> desc = Stream.empty();
             if (sub != null) {
-                desc = sub.values()
-                        .stream()
-                        .flatMap(Node::getProviders);
+                for (Node node : sub.values()) {
+                    node.collect(target);
+                }
+            }
+            if (generic != null) {
+                for (Node node : generic.values()) {
+                    node.collect(target);
+                }
             }
-            return Stream.concat(prim, desc);
+            return target;
         }
     }
 
@@ -0,0 +1,240 @@
+package vest.assist;
+
+import javax.inject.Named;
+import java.lang.annotation.Annotation;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The canonical form of a qualifier annotation, used by the {@link ProviderIndex} in place of the annotation itself.
+ * Keys are interned: equal qualifiers (the same annotation type with the same attribute values) always map to the same
+ * key, so keys are compared by identity and hashed by their identity hash code instead of going through the reflective
+ * {@link Annotation#equals(Object)} and {@link Annotation#hashCode()} of JDK annotation proxies. Named qualifiers are
+ * interned by name, so {@link #named(String)} does not allocate once a name has been seen, and the key of any other
+ * qualifier is remembered for the annotation instance, so its attributes are only read the first time the instance is
+ * seen.
+ * <p>
+ * Keys are interned weakly: a key stays interned only while something (a provider index, usually) holds on to it, so
+ * one-off names and qualifiers do not accumulate, and since only unused keys are dropped no two equal keys are ever in
+ * use at the same time. The interned keys for an annotation type are held in a {@link ClassValue} of that type, so they
+ * do not keep the class (or its class loader) from being unloaded.
+ */
+final class QualifierKey {
+
+    private static final Interned NAMED = new Interned();
+
+    private static final ClassValue<Interned> INTERNED = new ClassValue<Interned>() {
+        @Override
+        protected Interned computeValue(Class<?> type) {
+            return new Interned();
+        }
+    };
+
+    private static final ClassValue<Method[]> ATTRIBUTES = new ClassValue<Method[]>() {
+        @Override
+        protected Method[] computeValue(Class<?> type) {
+            Method[] attributes = type.getDeclaredMethods();
+            Arrays.sort(attributes, Comparator.comparing(Method::getName));
+            for (Method attribute : attributes) {
+                Reflector.makeAccessible(attribute);
+            }
+            return attributes;
+        }
+    };
+
+    /**
+     * Get the key for a qualifier.
+     *
+     * @param qualifier The qualifier, may be null
+     * @return The interned key for the qualifier, or null if the qualifier is null
+     */
+    static QualifierKey of(Annotation qualifier) {
+        if (qualifier == null) {
+            return null;
+        }
+        Class<? extends Annotation> type = qualifier.annotationType();
+        if (type == Named.class) {
+            return named(((Named) qualifier).value());
+        }
+        Interned interned = INTERNED.get(type);
+        QualifierKey key = interned.forInstance(qualifier);
+        if (key != null) {
+            return key;
+        }
+        Method[] attributes = ATTRIBUTES.get(type);
+        List<Object> values = new ArrayList<>(attributes.length);
+        for (Method attribute : attributes) {
+            try {
+                values.add(comparable(attribute.invoke(qualifier)));
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException("failed to read the value of " + attribute + " for qualifier " + qualifier, e);
+            }
+        }
+        key = interned.intern(values, () -> new QualifierKey(qualifier));
+        interned.remember(qualifier, key);
+        return key;
+    }
+
+    /**
+     * Get the key for a named qualifier.
+     *
+     * @param name The name
+     * @return The interned key for a @Named qualifier with the given name
+     */
+    static QualifierKey named(String name) {
+        QualifierKey key = NAMED.get(name);
+        return key != null ? key : NAMED.intern(name, () -> new QualifierKey(new NamedImpl(name)));
+    }
+
+    // arrays compare by identity, lists of their elements compare like Annotation.equals compares array attributes
+    private static Object comparable(Object value) {
+        if (value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            List<Object> elements = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                elements.add(comparable(Array.get(value, i)));
+            }
+            return elements;
+        }
+        return value;
+    }
+
+    private final Annotation annotation;
+
+    private QualifierKey(Annotation annotation) {
+        this.annotation = annotation;
+    }
+
+    /**
+     * @return An annotation equal to the qualifiers this key was created for
+     */
+    Annotation annotation() {
+        return annotation;
+    }
+
+    @Override
+    public String toString() {
+        return annotation.toString();
+    }
+
+    // weakly interned keys by value, and the keys of the annotation instances seen so far
+    private static final class Interned {
+        // reused for every instance lookup of a thread, so looking up a known annotation instance does not allocate
+        private static final ThreadLocal<InstanceProbe> PROBE = ThreadLocal.withInitial(InstanceProbe::new);
+
+        private final Map<Object, KeyRef> keys = new ConcurrentHashMap<>(16);
+        private final Map<InstanceRef, WeakReference<QualifierKey>> instances = new ConcurrentHashMap<>(16);
+        private final ReferenceQueue<Object> released = new ReferenceQueue<>();
+
+        QualifierKey get(Object value) {
+            KeyRef ref = keys.get(value);
+            return ref != null ? ref.get() : null;
+        }
+
+        synchronized QualifierKey intern(Object value, Supplier<QualifierKey> create) {
+            expunge();
+            QualifierKey key = get(value);
+            if (key == null) {
+                key = create.get();
+                keys.put(value, new KeyRef(key, value, released));
+            }
+            return key;
+        }
+
+        QualifierKey forInstance(Annotation annotation) {
+            InstanceProbe probe = PROBE.get();
+            probe.annotation = annotation;
+            probe.hash = System.identityHashCode(annotation);
+            WeakReference<QualifierKey> ref;
+            try {
+                ref = instances.get(probe);
+            } finally {
+                // the probe must not keep the annotation (or its class loader) alive
+                probe.annotation = null;
+            }
+            return ref != null ? ref.get() : null;
+        }
+
+        synchronized void remember(Annotation annotation, QualifierKey key) {
+            expunge();
+            instances.put(new InstanceRef(annotation, released), new WeakReference<>(key));
+        }
+
+        private void expunge() {
+            Reference<?> ref;
+            while ((ref = released.poll()) != null) {
+                if (ref instanceof KeyRef) {
+                    keys.remove(((KeyRef) ref).value, ref);
+                } else {
+                    instances.remove(ref);
+                }
+            }
+        }
+    }
+
+    private static final class KeyRef extends WeakReference<QualifierKey> {
+        private final Object value;
+
+        KeyRef(QualifierKey key, Object value, ReferenceQueue<Object> queue) {
+            super(key, queue);
+            this.value = value;
+        }
+    }
+
+    // an annotation instance, compared by identity
+    private static final class InstanceRef extends WeakReference<Annotation> {
+        private final int hash;
+
+        InstanceRef(Annotation annotation, ReferenceQueue<Object> queue) {
+            super(annotation, queue);
+            this.hash = System.identityHashCode(annotation);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o instanceof InstanceProbe) {
+                return o.equals(this);
+            }
+            if (!(o instanceof InstanceRef)) {
+                return false;
+            }
+            Annotation annotation = get();
+            return annotation != null && annotation == ((InstanceRef) o).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // the lookup side of an InstanceRef, holds the annotation only for the duration of a lookup
+    private static final class InstanceProbe {
+        private Annotation annotation;
+        private int hash;
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof InstanceRef && annotation != null && annotation == ((InstanceRef) o).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -6,28 +6,35 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 
 /**
  * Manages basic reflection tasks of dependency injection. Caches instances to speed up usage.
+ * <p>
+ * The caches are attached to the classes themselves (using {@link ClassValue}), so they never keep a class, or its
+ * class loader, from being garbage collected.
  */
 public class Reflector {
 
-    private static final Map<ClassKey, Reflector> CACHE = new ConcurrentHashMap<>(64, .9F, 4);
-    private static final Map<AnnotatedElement, Annotation> QUALIFIER_CACHE = new ConcurrentHashMap<>(64, .9F, 4);
+    private static volatile ClassValue<Reflector> cache = newCache();
+    private static volatile ClassValue<Map<AnnotatedElement, MemberMetadata>> metadataCache = newMetadataCache();
 
     /**
      * Get or create the Reflector for the given instance type. Calls to this method are exactly the same as calling
@@ -48,15 +55,34 @@ public class Reflector {
      * @return The Reflector for the type, if the Reflector has already been create once, a cached Reflector will be returned
      */
     public static Reflector of(Class type) {
-        return CACHE.computeIfAbsent(new ClassKey(type), Reflector::new);
+        return cache.get(type);
     }
 
     /**
      * Clear all cached Reflector instances.
      */
     public static void clear() {
-        CACHE.clear();
-        QUALIFIER_CACHE.clear();
+        // a class value can not be cleared for all classes, so start over with new ones
+        cache = newCache();
+        metadataCache = newMetadataCache();
+    }
+
+    private static ClassValue<Reflector> newCache() {
+        return new ClassValue<Reflector>() {
+            @Override
+            protected Reflector computeValue(Class<?> type) {
+                return new Reflector(type);
+            }
+        };
+    }
+
+    private static ClassValue<Map<AnnotatedElement, MemberMetadata>> newMetadataCache() {
+        return new ClassValue<Map<AnnotatedElement, MemberMetadata>>() {
+            @Override
+            protected Map<AnnotatedElement, MemberMetadata> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>(16, .9F, 1);
+            }
+        };
     }
 
     private final Class type;
@@ -64,35 +90,26 @@ public class Reflector {
     private final Annotation scope;
     private final Annotation qualifier;
     private final Collection<Class> hierarchy;
-    private final Collection<Field> fields;
-    private final Collection<Method> methods;
-
-    private Reflector(ClassKey key) {
-        this.type = Objects.requireNonNull(key.type);
+    private volatile Collection<Field> fields;
+    private volatile Collection<Method> methods;
+    private final Map<Class<? extends Annotation>, List<Field>> annotatedFields = new ConcurrentHashMap<>(4, .9F, 1);
+    private final Map<Class<? extends Annotation>, List<Method>> annotatedMethods = new ConcurrentHashMap<>(4, .9F, 1);
+    private volatile InjectionPlan injectionPlan;
+
+    // only the type hierarchy is needed up front (to index providers), members are collected on demand
+    private Reflector(Class type) {
+        this.type = Objects.requireNonNull(type);
         this.simpleName = this.type.getSimpleName();
         this.scope = getScope(type);
         this.qualifier = getQualifier(type);
 
-        LinkedList<Class> typeHierarchy = new LinkedList<>(Arrays.asList(type.getInterfaces()));
-        LinkedList<Method> typeMethods = new LinkedList<>();
-        Set<UniqueMethod> methodTracker = new HashSet<>(32);
-        Set<Field> typeFields = new HashSet<>(16);
-
+        ArrayDeque<Class> typeHierarchy = new ArrayDeque<>(Arrays.asList(type.getInterfaces()));
         Class temp = type;
         while (temp != null && temp != Object.class) {
             typeHierarchy.addFirst(temp);
-            Collections.addAll(typeFields, temp.getDeclaredFields());
-            for (Method method : temp.getDeclaredMethods()) {
-                if (methodTracker.add(new UniqueMethod(method))) {
-                    typeMethods.addFirst(method);
-                }
-            }
             temp = temp.getSuperclass();
         }
-
-        this.hierarchy = Collections.unmodifiableCollection(typeHierarchy);
-        this.methods = Collections.unmodifiableCollection(typeMethods);
-        this.fields = Collections.unmodifiableCollection(typeFields);
+        this.hierarchy = Collections.unmodifiableList(new ArrayList<>(typeHierarchy));
     }
 
     /**
@@ -131,10 +148,17 @@ public class Reflector {
     }
 
     /**
-     * @return A stream of all fields defined for the reflected type; includes all access levels, inherited, and static fields
+     * @return A stream of all fields defined for the reflected type; includes all access levels, inherited, and static fields.
+     * Fields declared in superclasses come before fields declared in subclasses.
      */
     public Collection<Field> fields() {
-        return fields;
+        Collection<Field> f = fields;
+        if (f == null) {
+            // racing threads collect equal lists, either one may win
+            f = Collections.unmodifiableList(collectFields(field -> true));
+            fields = f;
+        }
+        return f;
     }
 
     /**
@@ -142,7 +166,79 @@ public class Reflector {
      * generated methods
      */
     public Collection<Method> methods() {
-        return methods;
+        Collection<Method> m = methods;
+        if (m == null) {
+            m = Collections.unmodifiableList(collectMethods(method -> true));
+            methods = m;
+        }
+        return m;
+    }
+
+    /**
+     * Get the fields of the reflected type that have the given annotation, in the same order as {@link #fields()}.
+     * Synthetic fields are excluded. The list is collected the first time it is requested for an annotation type.
+     *
+     * @param annotationType The annotation type
+     * @return The annotated fields
+     */
+    public List<Field> fields(Class<? extends Annotation> annotationType) {
+        return annotatedFields.computeIfAbsent(annotationType, a -> immutable(collectFields(field -> !field.isSynthetic() && getMetadata(field).has(a))));
+    }
+
+    /**
+     * Get the methods of the reflected type that have the given annotation, in the same order as {@link #methods()}.
+     * Synthetic methods (lambdas, bridges) are excluded, and an overridden method is only included if the overriding
+     * method has the annotation. The list is collected the first time it is requested for an annotation type.
+     *
+     * @param annotationType The annotation type
+     * @return The annotated methods
+     */
+    public List<Method> methods(Class<? extends Annotation> annotationType) {
+        return annotatedMethods.computeIfAbsent(annotationType, a -> immutable(collectMethods(method -> !method.isSynthetic() && getMetadata(method).has(a))));
+    }
+
+    private List<Field> collectFields(Predicate<Field> filter) {
+        ArrayDeque<Field> typeFields = new ArrayDeque<>();
+        for (Class temp = type; temp != null && temp != Object.class; temp = temp.getSuperclass()) {
+            Field[] declaredFields = temp.getDeclaredFields();
+            for (int i = declaredFields.length - 1; i >= 0; i--) {
+                if (filter.test(declaredFields[i])) {
+                    typeFields.addFirst(declaredFields[i]);
+                }
+            }
+        }
+        return new ArrayList<>(typeFields);
+    }
+
+    // every method is tracked (not just the ones that pass the filter), so an override hides the overridden method
+    private List<Method> collectMethods(Predicate<Method> filter) {
+        ArrayDeque<Method> typeMethods = new ArrayDeque<>();
+        Set<UniqueMethod> methodTracker = new HashSet<>(32);
+        for (Class temp = type; temp != null && temp != Object.class; temp = temp.getSuperclass()) {
+            for (Method method : temp.getDeclaredMethods()) {
+                if (methodTracker.add(new UniqueMethod(method)) && filter.test(method)) {
+                    typeMethods.addFirst(method);
+                }
+            }
+        }
+        return new ArrayList<>(typeMethods);
+    }
+
+    private static <T> List<T> immutable(List<T> list) {
+        return list.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(list);
+    }
+
+    /**
+     * @return The compiled {@link InjectionPlan} for the reflected type, built the first time it is requested
+     */
+    public InjectionPlan injectionPlan() {
+        InjectionPlan plan = injectionPlan;
+        if (plan == null) {
+            // the plan is immutable, so a racing thread building a second copy is harmless
+            plan = new InjectionPlan(this);
+            injectionPlan = plan;
+        }
+        return plan;
     }
 
     @Override
@@ -158,7 +254,35 @@ public class Reflector {
      * @return The first qualifier found on the element or null if none exists
      */
     public static Annotation getQualifier(AnnotatedElement annotatedElement) {
-        return QUALIFIER_CACHE.computeIfAbsent(annotatedElement, ae -> getAnnotationWithExtension(ae, Qualifier.class));
+        return getMetadata(annotatedElement).qualifier();
+    }
+
+    /**
+     * Get the {@link MemberMetadata} for the given element. The metadata is read the first time it is requested and
+     * cached with the class that declares the element.
+     *
+     * @param annotatedElement The class, field, method, constructor or parameter
+     * @return The metadata for the element
+     */
+    public static MemberMetadata getMetadata(AnnotatedElement annotatedElement) {
+        Class<?> declaringClass = declaringClass(annotatedElement);
+        if (declaringClass == null) {
+            return new MemberMetadata(annotatedElement);
+        }
+        return metadataCache.get(declaringClass).computeIfAbsent(annotatedElement, MemberMetadata::new);
+    }
+
+    // the class that owns the element, the element is cached with that class
+    private static Class<?> declaringClass(AnnotatedElement annotatedElement) {
+        if (annotatedElement instanceof Class) {
+            return (Class<?>) annotatedElement;
+        } else if (annotatedElement instanceof Member) {
+            return ((Member) annotatedElement).getDeclaringClass();
+        } else if (annotatedElement instanceof Parameter) {
+            return ((Parameter) annotatedElement).getDeclaringExecutable().getDeclaringClass();
+        } else {
+            return null;
+        }
     }
 
     /**
@@ -174,30 +298,58 @@ public class Reflector {
 
     private static Annotation getAnnotationWithExtension(AnnotatedElement annotatedElement, Class<? extends Annotation> parentAnnotation) {
         for (Annotation annotation : annotatedElement.getAnnotations()) {
-            if (annotation.annotationType() == parentAnnotation) {
+            if (isExtendedBy(annotation, parentAnnotation)) {
                 return annotation;
             }
-            for (Annotation extendsAnnotations : annotation.annotationType().getAnnotations()) {
-                if (extendsAnnotations.annotationType() == parentAnnotation) {
-                    return annotation;
-                }
+        }
+        return null;
+    }
+
+    // true if the annotation is the parent annotation or is annotated with it
+    static boolean isExtendedBy(Annotation annotation, Class<? extends Annotation> parentAnnotation) {
+        if (annotation.annotationType() == parentAnnotation) {
+            return true;
+        }
+        for (Annotation extendsAnnotations : annotation.annotationType().getAnnotations()) {
+            if (extendsAnnotations.annotationType() == parentAnnotation) {
+                return true;
             }
         }
+        return false;
+    }
+
+    /**
+     * Get the (raw) class of the first type parameter for the given type, e.g. List for
+     * <code>Provider&lt;List&lt;String&gt;&gt;</code>.
+     *
+     * @param t The type
+     * @return the class of the first type argument if the type is a {@link ParameterizedType} and has 1 or more type
+     * arguments, otherwise (or if the type argument is a wildcard or type variable) returns null
+     * @see #getTypeArgument(Type)
+     */
+    public static Class<?> getParameterizedType(Type t) {
+        Type typeArg = getTypeArgument(t);
+        if (typeArg instanceof Class) {
+            return (Class<?>) typeArg;
+        } else if (typeArg instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) typeArg).getRawType();
+        }
         return null;
     }
 
     /**
-     * Get the first type parameter for the given type.
+     * Get the first type argument for the given type, e.g. <code>List&lt;String&gt;</code> for
+     * <code>Provider&lt;List&lt;String&gt;&gt;</code>.
      *
      * @param t The type
      * @return the first type argument if the type is a {@link ParameterizedType} and has 1 or more type arguments,
      * otherwise returns null
      */
-    public static Class<?> getParameterizedType(Type t) {
+    public static Type getTypeArgument(Type t) {
         if (t instanceof ParameterizedType) {
             Type[] typeArgs = ((ParameterizedType) t).getActualTypeArguments();
             if (typeArgs.length > 0) {
-                return (Class<?>) typeArgs[0];
+                return typeArgs[0];
             }
         }
         return null;
@@ -302,42 +454,17 @@ public class Reflector {
             }
             UniqueMethod um = (UniqueMethod) o;
             Method other = um.method;
-            return Objects.equals(method.getName(), other.getName())
-                    && Objects.equals(method.getReturnType(), other.getReturnType())
+            return method.getName().equals(other.getName())
+                    && method.getReturnType() == other.getReturnType()
                     && Arrays.equals(parameterTypes, um.parameterTypes);
         }
 
+        // classes hash by identity, so there is no need to build their names
         @Override
         public int hashCode() {
             return method.getName().hashCode()
-                    + 31 * method.getReturnType().toString().hashCode()
+                    + 31 * method.getReturnType().hashCode()
                     + 31 * Arrays.hashCode(parameterTypes);
         }
     }
-
-    private static final class ClassKey {
-        private final Class type;
-        private final int hash;
-
-        public ClassKey(Class type) {
-            this.type = type;
-            this.hash = type.toString().hashCode();
-        }
-
-        public Class type() {
-            return type;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            return o != null
-                    && o.getClass() == getClass()
-                    && type.equals(((ClassKey) o).type);
-        }
-
-        @Override
-        public int hashCode() {
-            return hash;
-        }
-    }
 }
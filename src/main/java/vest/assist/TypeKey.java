@@ -0,0 +1,174 @@
+package vest.assist;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The canonical form of a fully specified type, e.g. <code>Map&lt;String, List&lt;Handler&gt;&gt;</code>, used by the
+ * {@link ProviderIndex} to bind providers to parameterized types. Keys are interned: equal types always map to the same
+ * key, so keys are compared by identity instead of walking the {@link Type} objects. The key for a class is held in a
+ * {@link ClassValue} of that class. The key for a parameterized type is held in a {@link ClassValue} of the referenced
+ * class (the raw type, or a class of the owner or an argument) with the most specific class loader, see
+ * {@link #home()}; e.g. the key for <code>List&lt;Plugin&gt;</code> is held by <code>Plugin</code>, so it does not keep
+ * the class loader of the plugin alive through the bootstrap class <code>List</code>.
+ * <p>
+ * Only classes and parameterized types whose arguments (and parameterized owner type, for the inner classes of
+ * generic classes) are themselves fully specified have a key; type variables, wildcards and generic arrays do not.
+ */
+final class TypeKey {
+
+    private static final ClassValue<TypeKey> RAW = new ClassValue<TypeKey>() {
+        @Override
+        protected TypeKey computeValue(Class<?> type) {
+            return new TypeKey(null, type, Collections.emptyList(), type);
+        }
+    };
+
+    // held by the home class, keyed by the raw type and the owner key (null unless the owner is parameterized)
+    // followed by the argument keys
+    private static final ClassValue<Map<List<Object>, TypeKey>> PARAMETERIZED = new ClassValue<Map<List<Object>, TypeKey>>() {
+        @Override
+        protected Map<List<Object>, TypeKey> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>(8);
+        }
+    };
+
+    /**
+     * Get the key for a type.
+     *
+     * @param type The type
+     * @return The interned key for the type, or null if the type is not fully specified
+     */
+    static TypeKey of(Type type) {
+        if (type instanceof Class) {
+            return RAW.get((Class<?>) type);
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            Class<?> rawType = (Class<?>) parameterized.getRawType();
+            // a class owner (of a static nested class, or a raw owner) follows from the raw type and is left out
+            TypeKey owner = null;
+            if (parameterized.getOwnerType() instanceof ParameterizedType) {
+                owner = of(parameterized.getOwnerType());
+                if (owner == null) {
+                    return null;
+                }
+            }
+            Class<?> home = owner != null ? specific(rawType, owner.home) : rawType;
+            Type[] typeArguments = parameterized.getActualTypeArguments();
+            Object[] key = new Object[typeArguments.length + 2];
+            key[0] = rawType;
+            key[1] = owner;
+            for (int i = 0; i < typeArguments.length; i++) {
+                TypeKey argument = of(typeArguments[i]);
+                if (argument == null) {
+                    return null;
+                }
+                key[i + 2] = argument;
+                home = specific(home, argument.home);
+            }
+            // the classes and element keys are interned, so the list compares them by identity
+            List<Object> rawOwnerAndArguments = Arrays.asList(key);
+            @SuppressWarnings("unchecked")
+            List<TypeKey> arguments = (List<TypeKey>) (List<?>) rawOwnerAndArguments.subList(2, key.length);
+            TypeKey ownerKey = owner;
+            Class<?> homeClass = home;
+            return PARAMETERIZED.get(home).computeIfAbsent(rawOwnerAndArguments, k -> new TypeKey(ownerKey, rawType, arguments, homeClass));
+        } else {
+            return null;
+        }
+    }
+
+    // of two classes, the one whose class loader has the other's loader as an ancestor; for classes from unrelated
+    // loaders (siblings) the first one is kept
+    private static Class<?> specific(Class<?> current, Class<?> candidate) {
+        ClassLoader loader = current.getClassLoader();
+        ClassLoader candidateLoader = candidate.getClassLoader();
+        if (loader == candidateLoader || candidateLoader == null) {
+            return current;
+        }
+        if (loader == null) {
+            return candidate;
+        }
+        for (ClassLoader parent = candidateLoader.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent == loader) {
+                return candidate;
+            }
+        }
+        return current;
+    }
+
+    private final TypeKey owner;
+    private final Class<?> rawType;
+    private final List<TypeKey> arguments;
+    private final Class<?> home;
+
+    private TypeKey(TypeKey owner, Class<?> rawType, List<TypeKey> arguments, Class<?> home) {
+        this.owner = owner;
+        this.rawType = rawType;
+        this.arguments = Collections.unmodifiableList(arguments);
+        this.home = home;
+    }
+
+    /**
+     * @return The key of the parameterized type that owns this one, e.g. <code>Outer&lt;String&gt;</code> for
+     * <code>Outer&lt;String&gt;.Inner&lt;Integer&gt;</code>, or null if the owner is not parameterized
+     */
+    TypeKey owner() {
+        return owner;
+    }
+
+    /**
+     * @return The raw type
+     */
+    Class<?> rawType() {
+        return rawType;
+    }
+
+    /**
+     * @return The keys of the type arguments, empty for a class
+     */
+    List<TypeKey> arguments() {
+        return arguments;
+    }
+
+    /**
+     * @return The class whose {@link ClassValue} holds this key: of the raw type and the home classes of the owner and
+     * argument keys, the one with the most specific class loader
+     */
+    Class<?> home() {
+        return home;
+    }
+
+    /**
+     * @return true if this is the key of a parameterized type
+     */
+    boolean parameterized() {
+        return owner != null || !arguments.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (owner != null) {
+            sb.append(owner).append('$').append(rawType.getSimpleName());
+        } else {
+            sb.append(rawType.getName());
+        }
+        if (arguments.isEmpty()) {
+            return sb.toString();
+        }
+        sb.append('<');
+        for (int i = 0; i < arguments.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(arguments.get(i));
+        }
+        return sb.append('>').toString();
+    }
+}
@@ -1,5 +1,6 @@
 package vest.assist;
 
+import javax.inject.Provider;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Type;
 
@@ -20,4 +21,42 @@ public interface ValueLookup extends Prioritized {
      * combination of type(s) and annotations
      */
     Object lookup(Class<?> rawType, Type genericType, AnnotatedElement annotatedElement);
+
+    /**
+     * Check, without producing a value, whether this ValueLookup supplies the value for the given injection target.
+     * Used when validating the dependencies of an Assist instance (see {@link Assist#validate()}); injection targets
+     * that no ValueLookup claims to support are validated against the registered providers.
+     * <p>
+     * ValueLookups that do not implement this method are assumed to possibly supply any value: while one is
+     * registered, injection targets that can not be satisfied by a provider are not reported as unsatisfied. The
+     * default returns false.
+     *
+     * @param rawType          The raw type for the injection target
+     * @param genericType      The generic type for the injection target, can be null
+     * @param annotatedElement The injection target
+     * @return true if this ValueLookup will supply the value for the injection target
+     */
+    default boolean supports(Class<?> rawType, Type genericType, AnnotatedElement annotatedElement) {
+        return false;
+    }
+
+    /**
+     * Pre-resolve the value for the given injection target. Assist remembers the returned resolver for the injection
+     * target and, on later injections, calls it directly instead of going through the registered ValueLookups again.
+     * Remembered resolvers are discarded when a ValueLookup is registered or a provider is added to the Assist instance.
+     * If the resolver returns null, the value is looked up through the ValueLookups as usual.
+     * <p>
+     * Only return a resolver when this ValueLookup would supply the value for the injection target every time it is
+     * asked. The default returns null: the value is looked up using {@link #lookup(Class, Type, AnnotatedElement)}
+     * on every injection.
+     *
+     * @param rawType          The raw type for the injection target
+     * @param genericType      The generic type for the injection target, can be null
+     * @param annotatedElement The injection target
+     * @return A provider of the value for the injection target, or null if this ValueLookup does not support the
+     * injection target or can not resolve it ahead of time
+     */
+    default Provider<?> resolver(Class<?> rawType, Type genericType, AnnotatedElement annotatedElement) {
+        return null;
+    }
 }
@@ -5,6 +5,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
 import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
 import static java.lang.annotation.ElementType.PARAMETER;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 
@@ -14,14 +15,19 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
  * or inheritance issues might cause problems. Lazy should be used carefully; over use of lazy injection may
  * be an indication of architectural problems.
  * <p>
- * The @Lazy annotation may only be used to inject Provider types, e.g.:
+ * The @Lazy annotation may be used to inject Provider types, e.g.:
  * <code>
  * &#64;Lazy
  * &#64;Inject
  * Provider&lt;DAO&gt; lazyDao;
  * </code>
+ * or interface types, in which case a proxy is injected that gets the instance on the first call to any of its
+ * methods.
+ * <p>
+ * On a {@link Factory} method (that returns an interface type), the provider for the method returns a proxy, and the
+ * factory method is only called on the first call to a method of the proxy.
  */
-@Target({FIELD, PARAMETER})
+@Target({FIELD, PARAMETER, METHOD})
 @Retention(RUNTIME)
 @Documented
 public @interface Lazy {
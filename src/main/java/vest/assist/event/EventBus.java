@@ -47,9 +47,8 @@ public class EventBus {
     public void register(Object listener) {
         Objects.requireNonNull(listener, "can not register null listener");
         Reflector.of(listener)
-                .methods()
+                .methods(EventListener.class)
                 .stream()
-                .filter(method -> method.isAnnotationPresent(EventListener.class))
                 .peek(method -> {
                     if (!Modifier.isPublic(method.getModifiers())) {
                         throw new IllegalStateException("@EventListener methods must be public: " + Reflector.detailString(method));
@@ -0,0 +1,113 @@
+package vest.assist.processor;
+
+import vest.assist.util.ComponentIndex;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Annotation processor that writes the {@link ComponentIndex} for a compilation unit: every type (top level or member
+ * type, listed by its binary name, e.g. <code>com.foo.Outer$Inner</code>) that carries at least one runtime retained
+ * annotation (directly or inherited via {@link java.lang.annotation.Inherited}) is listed along with the names of those
+ * annotations. Local and anonymous classes are not listed; they can not be instantiated by Assist anyway. At runtime, {@link vest.assist.Assist#packageScan(String, Class)} reads
+ * the index instead of walking the classpath and loading every class in the scanned packages.
+ * <p>
+ * Like the {@link InjectorProcessor} it is not registered as a service and must be enabled explicitly:
+ * <pre>
+ * &lt;annotationProcessors&gt;
+ *     &lt;annotationProcessor&gt;vest.assist.processor.ComponentIndexProcessor&lt;/annotationProcessor&gt;
+ * &lt;/annotationProcessors&gt;
+ * </pre>
+ * The index only describes the types compiled together with it, so incremental builds that compile a subset of the
+ * sources must be avoided when the processor is enabled.
+ */
+@SupportedAnnotationTypes("*")
+public class ComponentIndexProcessor extends AbstractProcessor {
+
+    private final Map<String, Set<String>> index = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            write();
+            return false;
+        }
+        for (Element element : roundEnv.getRootElements()) {
+            if (element instanceof TypeElement) {
+                index((TypeElement) element);
+            }
+        }
+        // only observing, the annotations are left for other processors
+        return false;
+    }
+
+    // the type and its member types, which a classpath scan finds as well
+    private void index(TypeElement type) {
+        Set<String> runtimeAnnotations = runtimeAnnotations(type);
+        if (!runtimeAnnotations.isEmpty()) {
+            index.put(processingEnv.getElementUtils().getBinaryName(type).toString(), runtimeAnnotations);
+        }
+        for (Element enclosed : type.getEnclosedElements()) {
+            if (enclosed instanceof TypeElement) {
+                index((TypeElement) enclosed);
+            }
+        }
+    }
+
+    private Set<String> runtimeAnnotations(TypeElement type) {
+        Set<String> names = new TreeSet<>();
+        // includes the @Inherited annotations of the superclasses
+        for (AnnotationMirror mirror : processingEnv.getElementUtils().getAllAnnotationMirrors(type)) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            Retention retention = annotationType.getAnnotation(Retention.class);
+            if (retention != null && retention.value() == RetentionPolicy.RUNTIME) {
+                names.add(processingEnv.getElementUtils().getBinaryName(annotationType).toString());
+            }
+        }
+        return names;
+    }
+
+    private void write() {
+        if (index.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndex.INDEX_LOCATION);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Set<String>> entry : index.entrySet()) {
+                    writer.write(entry.getKey());
+                    writer.write('=');
+                    writer.write(String.join(",", entry.getValue()));
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "unable to write component index " + ComponentIndex.INDEX_LOCATION + ": " + e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+    }
+}
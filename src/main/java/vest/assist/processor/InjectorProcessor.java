@@ -0,0 +1,165 @@
+package vest.assist.processor;
+
+import vest.assist.provider.GeneratedInjector;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Annotation processor that generates a {@link GeneratedInjector} for every class that declares an @Inject constructor,
+ * field or method, or a @Factory method. The generated injector calls the injectable constructor directly, which lets
+ * Assist skip constructor discovery and reflective instantiation for the class at runtime. Constructor parameters and
+ * member injection are not generated, see {@link GeneratedInjector}.
+ * <p>
+ * The processor is not registered as a service, it must be enabled explicitly, e.g. with
+ * <code>javac -processor vest.assist.processor.InjectorProcessor</code> or in the maven-compiler-plugin:
+ * <pre>
+ * &lt;annotationProcessors&gt;
+ *     &lt;annotationProcessor&gt;vest.assist.processor.InjectorProcessor&lt;/annotationProcessor&gt;
+ * &lt;/annotationProcessors&gt;
+ * </pre>
+ * Classes that can not be instantiated from generated code (private or non-static nested classes, private constructors,
+ * constructors that throw checked exceptions, etc.) are skipped and continue to use reflection.
+ */
+@SupportedAnnotationTypes({"javax.inject.Inject", "vest.assist.annotations.Factory"})
+public class InjectorProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> types = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                Element enclosing = element.getEnclosingElement();
+                if (enclosing instanceof TypeElement) {
+                    types.add((TypeElement) enclosing);
+                }
+            }
+        }
+        for (TypeElement type : types) {
+            ExecutableElement constructor = injectableConstructor(type);
+            if (constructor != null) {
+                generate(type, constructor);
+            }
+        }
+        // the annotations are shared with other processors
+        return false;
+    }
+
+    private ExecutableElement injectableConstructor(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT) || !accessible(type)) {
+            return null;
+        }
+        ExecutableElement inject = null;
+        ExecutableElement noArg = null;
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getAnnotation(javax.inject.Inject.class) != null) {
+                if (inject != null) {
+                    // invalid, leave it to the runtime to report
+                    return null;
+                }
+                inject = constructor;
+            } else if (constructor.getParameters().isEmpty()) {
+                noArg = constructor;
+            }
+        }
+        ExecutableElement constructor = inject != null ? inject : noArg;
+        if (constructor == null
+                || constructor.getModifiers().contains(Modifier.PRIVATE)
+                || !constructor.getThrownTypes().isEmpty()) {
+            return null;
+        }
+        return constructor;
+    }
+
+    private static boolean accessible(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        if (type.getNestingKind() == NestingKind.TOP_LEVEL) {
+            return true;
+        }
+        return type.getNestingKind() == NestingKind.MEMBER
+                && type.getModifiers().contains(Modifier.STATIC)
+                && accessible((TypeElement) type.getEnclosingElement());
+    }
+
+    private void generate(TypeElement type, ExecutableElement constructor) {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String injectorName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + GeneratedInjector.SUFFIX;
+        String typeName = erasure(type);
+        List<? extends VariableElement> parameters = constructor.getParameters();
+
+        StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n");
+        sb.append("public final class ").append(injectorName)
+                .append(" implements ").append(GeneratedInjector.class.getCanonicalName()).append("<").append(typeName).append("> {\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public Class<").append(typeName).append("> type() {\n");
+        sb.append("        return ").append(typeName).append(".class;\n");
+        sb.append("    }\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public Class<?>[] parameterTypes() {\n");
+        sb.append("        return new Class<?>[]{");
+        for (int i = 0; i < parameters.size(); i++) {
+            sb.append(i > 0 ? ", " : "").append(erasure(parameters.get(i))).append(".class");
+        }
+        sb.append("};\n");
+        sb.append("    }\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public ").append(typeName).append(" newInstance(Object[] args) {\n");
+        sb.append("        return new ").append(typeName).append("(");
+        for (int i = 0; i < parameters.size(); i++) {
+            sb.append(i > 0 ? ", " : "").append("(").append(erasure(parameters.get(i))).append(") args[").append(i).append("]");
+        }
+        sb.append(");\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? injectorName : packageName + '.' + injectorName;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(sb.toString());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "unable to write generated injector " + qualifiedName + ": " + e.getMessage(), type);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String erasure(Element element) {
+        return processingEnv.getTypeUtils().erasure(element.asType()).toString();
+    }
+}
@@ -71,7 +71,7 @@ public class AdHocProvider<T> implements AssistProvider<T> {
             return false;
         }
         AssistProvider<?> that = (AssistProvider<?>) o;
-        return Objects.equals(type(), that.type()) && Objects.equals(qualifier(), that.qualifier());
+        return Objects.equals(genericType(), that.genericType()) && Objects.equals(qualifier(), that.qualifier());
     }
 
     @Override
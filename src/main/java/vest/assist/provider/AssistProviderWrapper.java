@@ -3,6 +3,8 @@ package vest.assist.provider;
 import vest.assist.AssistProvider;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Type;
 import java.util.List;
 import java.util.Objects;
 
@@ -22,6 +24,16 @@ public abstract class AssistProviderWrapper<T> implements AssistProvider<T> {
         return delegate.type();
     }
 
+    @Override
+    public Type genericType() {
+        return delegate.genericType();
+    }
+
+    @Override
+    public Class<?> implementationType() {
+        return delegate.implementationType();
+    }
+
     @Override
     public Annotation qualifier() {
         return delegate.qualifier();
@@ -47,6 +59,11 @@ public abstract class AssistProviderWrapper<T> implements AssistProvider<T> {
         return delegate.primary();
     }
 
+    @Override
+    public List<AnnotatedElement> dependencies() {
+        return delegate.dependencies();
+    }
+
     @Override
     public T get() {
         return delegate.get();
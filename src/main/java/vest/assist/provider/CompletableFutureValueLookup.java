@@ -0,0 +1,55 @@
+package vest.assist.provider;
+
+import vest.assist.Assist;
+import vest.assist.Reflector;
+import vest.assist.ValueLookup;
+
+import javax.inject.Provider;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Supplies the values for {@link CompletableFuture} injection points, e.g.:
+ * <code>
+ * &#64;Inject
+ * CompletableFuture&lt;DAO&gt; dao;
+ * </code>
+ * The instance is created asynchronously using {@link Assist#instanceAsync(Class, Annotation)}, so a constructor or
+ * factory method with several slow dependencies can have them created concurrently. The priority for this class is
+ * 9000, it must come before the {@link ProviderTypeValueLookup}.
+ */
+public final class CompletableFutureValueLookup implements ValueLookup {
+
+    private final Assist assist;
+
+    public CompletableFutureValueLookup(Assist assist) {
+        this.assist = assist;
+    }
+
+    @Override
+    public Object lookup(Class<?> rawType, Type genericType, AnnotatedElement annotatedElement) {
+        Provider<?> resolver = resolver(rawType, genericType, annotatedElement);
+        return resolver != null ? resolver.get() : null;
+    }
+
+    @Override
+    public Provider<?> resolver(Class<?> rawType, Type genericType, AnnotatedElement annotatedElement) {
+        if (rawType != CompletableFuture.class) {
+            return null;
+        }
+        Class<?> realType = Reflector.getParameterizedType(genericType);
+        if (realType == null) {
+            throw new IllegalArgumentException(genericType.getTypeName() + " was not defined with a specific type, injection is impossible for: " + Reflector.detailString(annotatedElement));
+        }
+        Annotation qualifier = Reflector.getQualifier(annotatedElement);
+        // a new future (and instance, unless scoped) for every injection
+        return () -> assist.instanceAsync(realType, qualifier);
+    }
+
+    @Override
+    public int priority() {
+        return 9000;
+    }
+}
@@ -2,14 +2,16 @@ package vest.assist.provider;
 
 import vest.assist.Assist;
 import vest.assist.AssistProvider;
+import vest.assist.MemberMetadata;
 import vest.assist.Reflector;
 import vest.assist.annotations.Eager;
 import vest.assist.annotations.Primary;
 
 import javax.inject.Inject;
+import javax.inject.Provider;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.util.Arrays;
@@ -18,6 +20,7 @@ import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * A provider instance that creates objects using a constructor. Per spec, only the zero-arg constructor or a
@@ -26,10 +29,17 @@ import java.util.Objects;
  */
 public class ConstructorProvider<T> implements AssistProvider<T> {
 
+    private static final Parameter[] NO_PARAMETERS = new Parameter[0];
+
     private final Class<T> advertisedType;
+    private final Class<? extends T> realType;
     private final Assist assist;
-    private final Constructor<T> constructor;
-    private final Parameter[] constructorParameters;
+    private final GeneratedInjector<T> injector;
+    private final Instantiator<T> instantiator;
+    // looked up when the provider is created for the reflective path, and only when first needed for a generated injector
+    private volatile Constructor<T> constructor;
+    private volatile Parameter[] constructorParameters;
+    private volatile Provider<Object[]> parameterValues;
     private final List<Annotation> annotations;
     private final Annotation scope;
     private final Annotation qualifier;
@@ -40,16 +50,29 @@ public class ConstructorProvider<T> implements AssistProvider<T> {
         this(type, type, assist);
     }
 
+    @SuppressWarnings("unchecked")
     public ConstructorProvider(Class<T> advertisedType, Class<? extends T> realType, Assist assist) {
         this.advertisedType = advertisedType;
+        this.realType = realType;
         this.assist = assist;
-        this.constructor = injectableConstructor(realType);
-        this.constructorParameters = this.constructor.getParameters();
+        this.injector = (GeneratedInjector<T>) GeneratedInjector.find(realType);
+        if (injector != null) {
+            this.instantiator = injector::newInstance;
+            if (injector.parameterTypes().length == 0) {
+                // nothing to resolve, the constructor is never looked up
+                bindParameters(NO_PARAMETERS);
+            }
+        } else {
+            this.constructor = injectableConstructor(realType);
+            this.instantiator = Instantiator.of(constructor, assist.methodHandleInstantiation());
+            bindParameters(constructor.getParameters());
+        }
         this.annotations = Collections.unmodifiableList(Arrays.asList(realType.getAnnotations()));
         this.scope = Reflector.getScope(realType);
-        this.qualifier = Reflector.getQualifier(realType);
-        this.eager = realType.isAnnotationPresent(Eager.class);
-        this.primary = realType.isAnnotationPresent(Primary.class);
+        MemberMetadata metadata = Reflector.getMetadata(realType);
+        this.qualifier = metadata.qualifier();
+        this.eager = metadata.has(Eager.class);
+        this.primary = metadata.has(Primary.class);
     }
 
     @Override
@@ -57,6 +80,11 @@ public class ConstructorProvider<T> implements AssistProvider<T> {
         return advertisedType;
     }
 
+    @Override
+    public Class<?> implementationType() {
+        return realType;
+    }
+
     @Override
     public Annotation qualifier() {
         return qualifier;
@@ -82,11 +110,22 @@ public class ConstructorProvider<T> implements AssistProvider<T> {
         return primary;
     }
 
+    @Override
+    public List<AnnotatedElement> dependencies() {
+        return Collections.unmodifiableList(Arrays.asList(constructorParameters()));
+    }
+
     @Override
     public T get() {
+        Provider<Object[]> parameterValues = this.parameterValues;
+        if (parameterValues == null) {
+            constructorParameters();
+            parameterValues = this.parameterValues;
+        }
+        Object[] args = parameterValues.get();
         try {
-            return constructor.newInstance(assist.getParameterValues(constructorParameters));
-        } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
+            return instantiator.newInstance(args);
+        } catch (Throwable e) {
             throw new RuntimeException("failed invoking constructor: " + toString(), e);
         }
     }
@@ -98,7 +137,12 @@ public class ConstructorProvider<T> implements AssistProvider<T> {
         if (qualifier != null) {
             sb.append(qualifier).append(":");
         }
-        sb.append(constructor).append("}:").append(hashCode());
+        if (constructor != null) {
+            sb.append(constructor);
+        } else {
+            sb.append(injector.type().getName()).append(Arrays.stream(injector.parameterTypes()).map(Class::getName).collect(Collectors.joining(",", "(", ")")));
+        }
+        sb.append("}:").append(hashCode());
         return sb.toString();
     }
 
@@ -111,7 +155,7 @@ public class ConstructorProvider<T> implements AssistProvider<T> {
             return false;
         }
         AssistProvider<?> that = (AssistProvider<?>) o;
-        return Objects.equals(type(), that.type()) && Objects.equals(qualifier(), that.qualifier());
+        return Objects.equals(genericType(), that.genericType()) && Objects.equals(qualifier(), that.qualifier());
     }
 
     @Override
@@ -119,6 +163,35 @@ public class ConstructorProvider<T> implements AssistProvider<T> {
         return advertisedType.hashCode() * 31 + (qualifier != null ? qualifier.hashCode() : 0);
     }
 
+    private Parameter[] constructorParameters() {
+        Parameter[] parameters = constructorParameters;
+        if (parameters == null) {
+            synchronized (this) {
+                if (constructorParameters == null) {
+                    Constructor<T> generated = generatedConstructor(injector);
+                    bindParameters(generated.getParameters());
+                    constructor = generated;
+                }
+                parameters = constructorParameters;
+            }
+        }
+        return parameters;
+    }
+
+    private void bindParameters(Parameter[] parameters) {
+        this.parameterValues = assist.bindParameters(parameters);
+        this.constructorParameters = parameters;
+    }
+
+    private static <T> Constructor<T> generatedConstructor(GeneratedInjector<T> injector) {
+        try {
+            // the injector was generated for the injectable constructor, so it can be looked up directly
+            return injector.type().getDeclaredConstructor(injector.parameterTypes());
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("generated injector is out of date with " + injector.type(), e);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public static <T> Constructor<T> injectableConstructor(Class type) {
         if (Modifier.isAbstract(type.getModifiers()) || type.isInterface()) {
@@ -129,7 +202,7 @@ public class ConstructorProvider<T> implements AssistProvider<T> {
         int injectAnnotatedConstructors = 0;
         Deque<Constructor<T>> list = new LinkedList<>();
         for (Constructor<T> c : type.getDeclaredConstructors()) {
-            if (c.isAnnotationPresent(Inject.class)) {
+            if (Reflector.getMetadata(c).has(Inject.class)) {
                 injectAnnotatedConstructors++;
                 list.addFirst(c);
             } else if (c.getParameterCount() == 0) {
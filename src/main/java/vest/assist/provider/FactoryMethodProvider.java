@@ -2,14 +2,17 @@ package vest.assist.provider;
 
 import vest.assist.Assist;
 import vest.assist.AssistProvider;
+import vest.assist.MemberMetadata;
 import vest.assist.Reflector;
 import vest.assist.annotations.Eager;
 import vest.assist.annotations.Primary;
 
+import javax.inject.Provider;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -25,8 +28,9 @@ public class FactoryMethodProvider<T> implements AssistProvider<T> {
     private final Annotation qualifier;
     private final Annotation scope;
     private final Method method;
+    private final Instantiator<Object> instantiator;
     private final Parameter[] methodParameters;
-    private final Object instance;
+    private final Provider<Object[]> parameterValues;
     private final List<Annotation> annotations;
     private final boolean eager;
     private final boolean primary;
@@ -34,16 +38,18 @@ public class FactoryMethodProvider<T> implements AssistProvider<T> {
     @SuppressWarnings("unchecked")
     public FactoryMethodProvider(Method method, Object instance, Assist assist) {
         this.type = (Class<T>) method.getReturnType();
-        this.qualifier = Reflector.getQualifier(method);
+        MemberMetadata metadata = Reflector.getMetadata(method);
+        this.qualifier = metadata.qualifier();
         this.scope = Reflector.getScope(method);
         this.assist = assist;
         Reflector.makeAccessible(method);
         this.method = method;
+        this.instantiator = Instantiator.of(method, instance, assist.methodHandleInstantiation());
         this.methodParameters = method.getParameters();
-        this.instance = instance;
+        this.parameterValues = assist.bindParameters(methodParameters);
         this.annotations = Collections.unmodifiableList(Arrays.asList(method.getAnnotations()));
-        this.eager = method.isAnnotationPresent(Eager.class);
-        this.primary = method.isAnnotationPresent(Primary.class);
+        this.eager = metadata.has(Eager.class);
+        this.primary = metadata.has(Primary.class);
     }
 
     @Override
@@ -51,6 +57,11 @@ public class FactoryMethodProvider<T> implements AssistProvider<T> {
         return type;
     }
 
+    @Override
+    public Type genericType() {
+        return method.getGenericReturnType();
+    }
+
     @Override
     public Annotation qualifier() {
         return qualifier;
@@ -76,18 +87,31 @@ public class FactoryMethodProvider<T> implements AssistProvider<T> {
         return primary;
     }
 
+    @Override
+    public List<AnnotatedElement> dependencies() {
+        return Collections.unmodifiableList(Arrays.asList(methodParameters));
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public T get() {
+        T t;
+        // @SkipInjection factory methods are not wrapped in an InjectionProvider, so they are tracked here as well
+        ResolutionStack stack = ResolutionStack.enter(this);
         try {
-            T t = (T) method.invoke(instance, assist.getParameterValues(methodParameters));
-            if (t == null) {
-                throw new NullPointerException("method provider [" + Reflector.detailString(method) + "] produced a null object");
+            Object[] args = parameterValues.get();
+            try {
+                t = (T) instantiator.newInstance(args);
+            } catch (Throwable e) {
+                throw new RuntimeException("error invoking method: " + Reflector.detailString(method), e);
             }
-            return t;
-        } catch (InvocationTargetException | IllegalAccessException e) {
-            throw new RuntimeException("error invoking method: " + Reflector.detailString(method), e);
+        } finally {
+            stack.exit();
+        }
+        if (t == null) {
+            throw new NullPointerException("method provider [" + Reflector.detailString(method) + "] produced a null object");
         }
+        return t;
     }
 
     @Override
@@ -110,7 +134,7 @@ public class FactoryMethodProvider<T> implements AssistProvider<T> {
             return false;
         }
         AssistProvider<?> that = (AssistProvider<?>) o;
-        return Objects.equals(type(), that.type()) && Objects.equals(qualifier(), that.qualifier());
+        return Objects.equals(genericType(), that.genericType()) && Objects.equals(qualifier(), that.qualifier());
     }
 
     @Override
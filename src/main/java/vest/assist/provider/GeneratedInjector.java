@@ -0,0 +1,51 @@
+package vest.assist.provider;
+
+/**
+ * Implemented by the injector classes that {@link vest.assist.processor.InjectorProcessor} generates at compile time.
+ * A generated injector creates instances of its type by calling the injectable constructor directly, so the
+ * {@link ConstructorProvider} for the type neither scans the declared constructors nor instantiates through
+ * reflection; the constructor is only looked up reflectively (for its parameter annotations and generic types) when it
+ * has parameters and they are first resolved. Member injection (@Inject fields and methods) is not generated, it uses
+ * the same reflective injection plan as a type without an injector. When no generated injector exists for a type, the
+ * reflective path is used.
+ * <p>
+ * The injector for a class must be named after the binary name of the class with {@link #SUFFIX} appended, e.g.
+ * <code>com.foo.Service$$AssistInjector</code> or <code>com.foo.Outer$Inner$$AssistInjector</code>.
+ */
+public interface GeneratedInjector<T> {
+
+    /**
+     * The suffix appended to the binary class name to get the name of the generated injector.
+     */
+    String SUFFIX = "$$AssistInjector";
+
+    /**
+     * The type created by this injector.
+     */
+    Class<T> type();
+
+    /**
+     * The parameter types of the injectable constructor, in declaration order.
+     */
+    Class<?>[] parameterTypes();
+
+    /**
+     * Create a new instance using the injectable constructor.
+     *
+     * @param args The constructor arguments, matching {@link #parameterTypes()}
+     * @return The new instance
+     */
+    T newInstance(Object[] args);
+
+    /**
+     * Find the generated injector for the given type. The result is cached per type, and checking a type that has no
+     * generated injector does not attempt to load a class.
+     *
+     * @param type The type to find the injector for
+     * @return The generated injector, or null if one was not generated for the type
+     */
+    @SuppressWarnings("unchecked")
+    static <T> GeneratedInjector<T> find(Class<T> type) {
+        return (GeneratedInjector<T>) GeneratedInjectors.get(type);
+    }
+}
@@ -0,0 +1,51 @@
+package vest.assist.provider;
+
+import java.util.Optional;
+
+/**
+ * The cached result of looking up the {@link GeneratedInjector} of each class, see {@link GeneratedInjector#find(Class)}.
+ * Most classes have no generated injector, so the lookup first checks that the injector class file exists, instead of
+ * paying for a failed class load, and the answer (either way) is kept with the class.
+ */
+final class GeneratedInjectors {
+
+    private static final ClassValue<Optional<GeneratedInjector<?>>> INJECTORS = new ClassValue<Optional<GeneratedInjector<?>>>() {
+        @Override
+        protected Optional<GeneratedInjector<?>> computeValue(Class<?> type) {
+            return Optional.ofNullable(load(type));
+        }
+    };
+
+    private GeneratedInjectors() {
+    }
+
+    static GeneratedInjector<?> get(Class<?> type) {
+        return INJECTORS.get(type).orElse(null);
+    }
+
+    private static GeneratedInjector<?> load(Class<?> type) {
+        ClassLoader classLoader = type.getClassLoader();
+        if (classLoader == null) {
+            return null;
+        }
+        String injectorName = type.getName() + GeneratedInjector.SUFFIX;
+        if (classLoader.getResource(injectorName.replace('.', '/') + ".class") == null) {
+            return null;
+        }
+        Class<?> injectorType;
+        try {
+            injectorType = Class.forName(injectorName, true, classLoader);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        if (!GeneratedInjector.class.isAssignableFrom(injectorType)) {
+            return null;
+        }
+        try {
+            GeneratedInjector<?> injector = (GeneratedInjector<?>) injectorType.getDeclaredConstructor().newInstance();
+            return injector.type() == type ? injector : null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("unable to create generated injector " + injectorType.getName(), e);
+        }
+    }
+}
@@ -2,6 +2,14 @@ package vest.assist.provider;
 
 import vest.assist.Assist;
 import vest.assist.AssistProvider;
+import vest.assist.InjectionPlan;
+import vest.assist.Reflector;
+
+import java.lang.reflect.AnnotatedElement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Provider wrapper that injects instances produced by the delegate.
@@ -15,8 +23,25 @@ public class InjectionProvider<T> extends AssistProviderWrapper<T> {
         this.assist = assist;
     }
 
+    @Override
+    public List<AnnotatedElement> dependencies() {
+        // the injected members of the class the delegate creates, in addition to what it needs to create the instance
+        InjectionPlan plan = Reflector.of(implementationType()).injectionPlan();
+        List<AnnotatedElement> dependencies = new ArrayList<>(super.dependencies());
+        dependencies.addAll(plan.injectFields().stream().map(InjectionPlan.FieldInjector::field).collect(Collectors.toList()));
+        for (InjectionPlan.MethodInjector method : plan.injectMethods()) {
+            dependencies.addAll(Arrays.asList(method.parameters()));
+        }
+        return dependencies;
+    }
+
     @Override
     public T get() {
-        return assist.inject(super.get());
+        ResolutionStack stack = ResolutionStack.enter(this);
+        try {
+            return assist.inject(super.get());
+        } finally {
+            stack.exit();
+        }
     }
 }
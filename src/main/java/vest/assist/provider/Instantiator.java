@@ -0,0 +1,92 @@
+package vest.assist.provider;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Creates object instances from an already resolved argument array. Used by {@link ConstructorProvider} and
+ * {@link FactoryMethodProvider} so that the mechanism used to call the constructor or factory method is chosen once,
+ * when the provider is created, instead of on every call.
+ * <p>
+ * Two engines are available: the default reflective engine ({@link Constructor#newInstance(Object...)} and
+ * {@link Method#invoke(Object, Object...)}) and a {@link MethodHandle} based engine that is enabled with
+ * {@link vest.assist.Assist#setMethodHandleInstantiation(boolean)}. Both engines throw the exception raised by the
+ * constructor or method itself, rather than wrapping it in an {@link InvocationTargetException}.
+ */
+@FunctionalInterface
+public interface Instantiator<T> {
+
+    /**
+     * Create a new instance.
+     *
+     * @param args The arguments to pass to the constructor or method
+     * @return The created instance
+     * @throws Throwable anything thrown by the underlying constructor or method
+     */
+    T newInstance(Object[] args) throws Throwable;
+
+    /**
+     * Build an instantiator for the given constructor.
+     *
+     * @param constructor   The constructor to call, it must already be accessible
+     * @param methodHandles When true, the constructor is called through a {@link MethodHandle}, else via reflection
+     * @return An instantiator that calls the constructor
+     */
+    static <T> Instantiator<T> of(Constructor<T> constructor, boolean methodHandles) {
+        if (!methodHandles) {
+            return args -> {
+                try {
+                    return constructor.newInstance(args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            };
+        }
+        try {
+            MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, constructor.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            @SuppressWarnings("unchecked")
+            Instantiator<T> instantiator = args -> (T) handle.invokeExact(args);
+            return instantiator;
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("unable to build method handle for: " + constructor, e);
+        }
+    }
+
+    /**
+     * Build an instantiator for the given (factory) method.
+     *
+     * @param method        The method to call, it must already be accessible
+     * @param target        The object to call the method on, ignored for static methods
+     * @param methodHandles When true, the method is called through a {@link MethodHandle}, else via reflection
+     * @return An instantiator that calls the method
+     */
+    static Instantiator<Object> of(Method method, Object target, boolean methodHandles) {
+        if (!methodHandles) {
+            return args -> {
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            };
+        }
+        try {
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            if (!Modifier.isStatic(method.getModifiers())) {
+                handle = handle.bindTo(target);
+            }
+            MethodHandle spread = handle.asSpreader(Object[].class, method.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            return args -> (Object) spread.invokeExact(args);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("unable to build method handle for: " + method, e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package vest.assist.provider;
+
+import vest.assist.Assist;
+import vest.assist.Reflector;
+
+import javax.inject.Provider;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Used internally to support {@link vest.assist.annotations.Lazy} for interface types. The proxy gets its instance
+ * from the provider on the first method call (including {@link Object#toString()}, {@link Object#equals(Object)} and
+ * {@link Object#hashCode()}) and sends every call to that one instance. Calls go through a {@link MethodHandle} per
+ * method, built once per interface.
+ */
+final class LazyProxy<T> implements InvocationHandler {
+
+    /**
+     * Create a lazy proxy.
+     *
+     * @param type     The interface the proxy implements
+     * @param provider The provider of the instance that the proxy calls
+     * @return The proxy
+     */
+    static <T> T create(Class<T> type, Provider<? extends T> provider) {
+        if (!type.isInterface()) {
+            throw new IllegalArgumentException("lazy proxies can only be created for interfaces; [" + type + "] is not an interface");
+        }
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, new LazyProxy<>(provider, HANDLES.get(type))));
+    }
+
+    /**
+     * Get the lazy value for a @Lazy injection point: a lazy {@link Provider} for Provider types, or a lazy proxy for
+     * interface types.
+     *
+     * @param assist      The assist instance that provides the instance
+     * @param rawType     The raw type of the injection point
+     * @param genericType The generic type of the injection point
+     * @param qualifier   The qualifier of the injection point
+     * @return The lazy value
+     */
+    @SuppressWarnings("unchecked")
+    static Object lazyValue(Assist assist, Class<?> rawType, Type genericType, Annotation qualifier) {
+        if (rawType == Provider.class) {
+            return assist.lazyProviderFor(Reflector.getParameterizedType(genericType), qualifier);
+        } else if (rawType.isInterface()) {
+            return create((Class<Object>) rawType, assist.lazyProviderFor((Class<Object>) rawType, qualifier));
+        } else {
+            throw new IllegalArgumentException("@Lazy may only be used for Provider and interface types");
+        }
+    }
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    // the handles of an interface's methods, taking the target and the arguments
+    private static final ClassValue<Map<Method, MethodHandle>> HANDLES = new ClassValue<Map<Method, MethodHandle>>() {
+        @Override
+        protected Map<Method, MethodHandle> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>(16, .75F, 2);
+        }
+    };
+
+    private static MethodHandle handle(Method method) {
+        Reflector.makeAccessible(method);
+        try {
+            return MethodHandles.lookup().unreflect(method)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("unable to build method handle for: " + method, e);
+        }
+    }
+
+    private final Provider<? extends T> provider;
+    private final Map<Method, MethodHandle> handles;
+    private volatile T instance;
+
+    private LazyProxy(Provider<? extends T> provider, Map<Method, MethodHandle> handles) {
+        this.provider = provider;
+        this.handles = handles;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        MethodHandle handle = handles.get(method);
+        if (handle == null) {
+            handle = handles.computeIfAbsent(method, LazyProxy::handle);
+        }
+        return (Object) handle.invokeExact((Object) instance(), (Object[]) (args != null ? args : NO_ARGS));
+    }
+
+    private T instance() {
+        T t = instance;
+        if (t == null) {
+            synchronized (this) {
+                t = instance;
+                if (t == null) {
+                    t = provider.get();
+                    instance = t;
+                }
+            }
+        }
+        return t;
+    }
+}
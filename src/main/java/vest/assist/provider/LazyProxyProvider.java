@@ -0,0 +1,27 @@
+package vest.assist.provider;
+
+import vest.assist.AssistProvider;
+
+/**
+ * Used internally to provide lazy proxies for @Lazy providers; the delegate provider is only called on the first call
+ * to a method of the proxy.
+ */
+public class LazyProxyProvider<T> extends AssistProviderWrapper<T> {
+
+    public LazyProxyProvider(AssistProvider<T> delegate) {
+        super(delegate);
+        if (!type().isInterface()) {
+            throw new IllegalArgumentException("@Lazy may not be applied to non-interfaces; [" + type() + "] can not be proxied");
+        }
+    }
+
+    @Override
+    public T get() {
+        return LazyProxy.create(type(), super::get);
+    }
+
+    @Override
+    public String toString() {
+        return "@Lazy{" + super.toString() + "}";
+    }
+}
@@ -0,0 +1,29 @@
+package vest.assist.provider;
+
+import vest.assist.AssistProvider;
+import vest.assist.ProviderWrapper;
+import vest.assist.annotations.Lazy;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Used internally to defer the creation of instances from @Lazy providers until they are used.
+ */
+public class LazyWrapper implements ProviderWrapper {
+
+    @Override
+    public <T> AssistProvider<T> wrap(AssistProvider<T> provider) {
+        for (Annotation annotation : provider.annotations()) {
+            if (annotation.annotationType() == Lazy.class) {
+                return new LazyProxyProvider<>(provider);
+            }
+        }
+        return provider;
+    }
+
+    // after the aspects are woven (so weaving is deferred too), but inside the scope
+    @Override
+    public int priority() {
+        return 75000;
+    }
+}
@@ -1,13 +1,13 @@
 package vest.assist.provider;
 
 import vest.assist.Assist;
+import vest.assist.InjectionPlan;
 import vest.assist.InstanceInterceptor;
 import vest.assist.Reflector;
 import vest.assist.ValueLookup;
 import vest.assist.annotations.Property;
 import vest.assist.conf.ConfigurationFacade;
 
-import javax.inject.Inject;
 import javax.inject.Provider;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
@@ -28,36 +28,46 @@ public class PropertyInjector implements InstanceInterceptor, ValueLookup {
 
     @Override
     public void intercept(Object instance) {
-        for (Field field : Reflector.of(instance).fields()) {
-            // we ignore the @Inject fields because they will be lookup up used the ValueLookup part of this class
-            if (field.isAnnotationPresent(Property.class) && !field.isAnnotationPresent(Inject.class)) {
-                Property prop = field.getAnnotation(Property.class);
-                try {
-                    Object value = getProperty(prop, field.getType(), field.getGenericType());
-                    Reflector.makeAccessible(field);
-                    if (value == null && prop.required()) {
-                        throw new IllegalArgumentException("missing property: " + prop.value() + ", for " + Reflector.detailString(field));
-                    }
-                    field.set(instance, value);
-                } catch (IllegalAccessException e) {
-                    throw new RuntimeException("error setting field to property value", e);
-                }
+        // the plan excludes @Inject fields because they will be looked up using the ValueLookup part of this class
+        for (InjectionPlan.FieldInjector injector : Reflector.of(instance).injectionPlan().propertyFields()) {
+            Field field = injector.field();
+            Property prop = injector.metadata().annotation(Property.class);
+            Object value = getProperty(prop, field.getType(), field.getGenericType());
+            if (value == null && prop.required()) {
+                throw new IllegalArgumentException("missing property: " + prop.value() + ", for " + Reflector.detailString(field));
+            }
+            try {
+                injector.set(instance, value);
+            } catch (Throwable e) {
+                throw new RuntimeException("error setting field to property value", e);
             }
         }
     }
 
     @Override
     public Object lookup(Class<?> rawType, Type genericType, AnnotatedElement annotatedElement) {
-        if (annotatedElement.isAnnotationPresent(Property.class)) {
-            Property prop = annotatedElement.getAnnotation(Property.class);
+        Provider<?> resolver = resolver(rawType, genericType, annotatedElement);
+        return resolver != null ? resolver.get() : null;
+    }
+
+    @Override
+    public Provider<?> resolver(Class<?> rawType, Type genericType, AnnotatedElement annotatedElement) {
+        Property prop = Reflector.getMetadata(annotatedElement).annotation(Property.class);
+        if (prop == null) {
+            return null;
+        }
+        return () -> {
             Object o = getProperty(prop, rawType, genericType);
             if (o == null && prop.required()) {
                 throw new IllegalArgumentException("missing property: " + prop.value() + ", for " + Reflector.detailString(annotatedElement));
             }
             return o;
-        } else {
-            return null;
-        }
+        };
+    }
+
+    @Override
+    public boolean supports(Class<?> rawType, Type genericType, AnnotatedElement annotatedElement) {
+        return Reflector.getMetadata(annotatedElement).has(Property.class);
     }
 
     @Override
@@ -1,21 +1,25 @@
 package vest.assist.provider;
 
 import vest.assist.Assist;
+import vest.assist.MemberMetadata;
 import vest.assist.Reflector;
 import vest.assist.ValueLookup;
+import vest.assist.annotations.Lazy;
 
 import javax.inject.Provider;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.stream.Collector;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -33,52 +37,64 @@ public final class ProviderTypeValueLookup implements ValueLookup {
 
     @Override
     public Object lookup(Class<?> rawType, Type genericType, AnnotatedElement annotatedElement) {
-        Annotation qualifier = Reflector.getQualifier(annotatedElement);
-        if (rawType == Provider.class) {
-            return provider(genericType, annotatedElement);
+        return resolver(rawType, genericType, annotatedElement).get();
+    }
+
+    // the providers are resolved once; Assist discards the resolver when providers are added
+    @Override
+    public Provider<?> resolver(Class<?> rawType, Type genericType, AnnotatedElement annotatedElement) {
+        MemberMetadata metadata = Reflector.getMetadata(annotatedElement);
+        Annotation qualifier = metadata.qualifier();
+        if (metadata.has(Lazy.class)) {
+            // a new lazy value for every injection, the same as a (prototype) instance would be new for every injection
+            return () -> LazyProxy.lazyValue(assist, rawType, genericType, qualifier);
+        } else if (rawType == Provider.class) {
+            Provider<?> provider = assist.providerFor(getTypeArgument(annotatedElement, genericType), qualifier);
+            return () -> provider;
+        } else if (genericType instanceof ParameterizedType && assist.hasProvider(genericType, qualifier)) {
+            // a binding for exactly this parameterized type wins over collecting or wrapping other providers
+            return assist.providerFor(genericType, qualifier);
         } else if (Collection.class.isAssignableFrom(rawType)) {
-            return collection(rawType, genericType, annotatedElement);
+            return collection(rawType, getRealType(annotatedElement, genericType), qualifier);
         } else if (Optional.class == rawType) {
-            return optional(genericType, annotatedElement);
+            Optional<? extends Provider<?>> provider = assist.providersFor(getRealType(annotatedElement, genericType), qualifier).findAny();
+            return () -> provider.map(Provider::get);
         } else {
-            return assist.instance(rawType, qualifier);
+            return assist.providerFor(rawType, qualifier);
         }
     }
 
     private Class getRealType(AnnotatedElement annotatedElement, Type genericType) {
-        Class<?> realType = Reflector.getParameterizedType(genericType);
-        if (realType == null) {
-            throw new IllegalArgumentException(genericType.getTypeName() + " was not defined with a specific type, injection is impossible for: " + Reflector.detailString(annotatedElement));
-        }
-        return realType;
+        Type typeArgument = getTypeArgument(annotatedElement, genericType);
+        return typeArgument instanceof Class ? (Class) typeArgument : (Class) ((ParameterizedType) typeArgument).getRawType();
     }
 
-    private Provider provider(Type genericType, AnnotatedElement annotatedElement) {
-        Class<?> realType = getRealType(annotatedElement, genericType);
-        Annotation qualifier = Reflector.getQualifier(annotatedElement);
-        return assist.providerFor(realType, qualifier);
+    // the first type argument, which may itself be parameterized (e.g. List<String> for Provider<List<String>>)
+    private Type getTypeArgument(AnnotatedElement annotatedElement, Type genericType) {
+        Type typeArgument = Reflector.getTypeArgument(genericType);
+        if (!(typeArgument instanceof Class) && !(typeArgument instanceof ParameterizedType)) {
+            throw new IllegalArgumentException(genericType.getTypeName() + " was not defined with a specific type, injection is impossible for: " + Reflector.detailString(annotatedElement));
+        }
+        return typeArgument;
     }
 
-    private Object collection(Class collectionType, Type genericType, AnnotatedElement annotatedElement) {
-        Class<?> realType = getRealType(annotatedElement, genericType);
-        Annotation qualifier = Reflector.getQualifier(annotatedElement);
-        Collector<Object, ?, Collection<Object>> c;
+    private Provider<?> collection(Class<?> collectionType, Class<?> realType, Annotation qualifier) {
+        Supplier<Collection<Object>> factory;
         if (SortedSet.class.isAssignableFrom(collectionType)) {
-            c = Collectors.toCollection(TreeSet::new);
+            factory = TreeSet::new;
         } else if (Set.class.isAssignableFrom(collectionType)) {
-            c = Collectors.toCollection(HashSet::new);
+            factory = HashSet::new;
         } else {
-            c = Collectors.toCollection(ArrayList::new);
+            factory = ArrayList::new;
         }
-        return assist.providersFor(realType, qualifier)
-                .map(Provider::get)
-                .collect(c);
-    }
-
-    private Object optional(Type genericType, AnnotatedElement annotatedElement) {
-        Annotation qualifier = Reflector.getQualifier(annotatedElement);
-        Class<?> realType = getRealType(annotatedElement, genericType);
-        return assist.providersFor(realType, qualifier).findAny().map(Provider::get);
+        List<? extends Provider<?>> providers = assist.providersFor(realType, qualifier).collect(Collectors.toList());
+        return () -> {
+            Collection<Object> collection = factory.get();
+            for (Provider<?> provider : providers) {
+                collection.add(provider.get());
+            }
+            return collection;
+        };
     }
 
     @Override
@@ -0,0 +1,79 @@
+package vest.assist.provider;
+
+import vest.assist.AssistProvider;
+import vest.assist.Reflector;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The providers that are creating (or injecting) an instance on the current thread, innermost last. A provider that is
+ * entered while it is already on the stack depends on itself, directly or through its dependencies, and would recurse
+ * until the thread runs out of stack; instead, entering it fails with the dependency path. Scoped providers that have
+ * already created their instance (e.g. initialized singletons) never enter the stack.
+ */
+final class ResolutionStack {
+
+    private static final ThreadLocal<ResolutionStack> STACK = ThreadLocal.withInitial(ResolutionStack::new);
+
+    /**
+     * Push the given provider onto the current thread's stack; must be followed by {@link #exit()} (in a finally block)
+     * once the provider is done.
+     *
+     * @param provider The provider that is about to create an instance
+     * @return The current thread's stack
+     * @throws IllegalStateException if the provider is already on the stack
+     */
+    static ResolutionStack enter(AssistProvider<?> provider) {
+        ResolutionStack stack = STACK.get();
+        stack.push(provider);
+        return stack;
+    }
+
+    private AssistProvider<?>[] providers = new AssistProvider[16];
+    private int size = 0;
+
+    private ResolutionStack() {
+    }
+
+    /**
+     * Pop the provider pushed by the matching {@link #enter(AssistProvider)}.
+     */
+    void exit() {
+        providers[--size] = null;
+    }
+
+    private void push(AssistProvider<?> provider) {
+        // stacks are shallow, a scan is cheaper than maintaining a set
+        for (int i = 0; i < size; i++) {
+            if (providers[i] == provider) {
+                throw new IllegalStateException("circular dependency: " + path(i, provider));
+            }
+        }
+        if (size == providers.length) {
+            providers = Arrays.copyOf(providers, size * 2);
+        }
+        providers[size++] = provider;
+    }
+
+    // wrappers and the providers they wrap are both on the stack, each type/qualifier is only listed once in a row
+    private String path(int from, AssistProvider<?> repeated) {
+        StringBuilder sb = new StringBuilder();
+        AssistProvider<?> previous = null;
+        for (int i = from; i <= size; i++) {
+            AssistProvider<?> provider = i < size ? providers[i] : repeated;
+            if (previous != null && previous.type() == provider.type() && Objects.equals(previous.qualifier(), provider.qualifier())) {
+                continue;
+            }
+            if (previous != null) {
+                sb.append(" -> ");
+            }
+            sb.append(Reflector.debugName(provider.type()));
+            if (provider.qualifier() != null) {
+                sb.append('(').append(provider.qualifier()).append(')');
+            }
+            previous = provider;
+        }
+        return sb.toString();
+    }
+}
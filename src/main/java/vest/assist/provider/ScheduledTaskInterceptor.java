@@ -36,11 +36,8 @@ public class ScheduledTaskInterceptor implements InstanceInterceptor {
 
     @Override
     public void intercept(Object instance) {
-        for (Method method : Reflector.of(instance).methods()) {
-            Scheduled scheduled = method.getAnnotation(Scheduled.class);
-            if (scheduled != null) {
-                schedule(scheduled, instance, method);
-            }
+        for (Method method : Reflector.of(instance).injectionPlan().scheduledMethods()) {
+            schedule(Reflector.getMetadata(method).annotation(Scheduled.class), instance, method);
         }
     }
 
@@ -85,7 +82,7 @@ public class ScheduledTaskInterceptor implements InstanceInterceptor {
         private final Assist assist;
         private final Scheduled scheduled;
         private final AtomicInteger executionCount;
-        private ScheduledFuture<?> futureHandle;
+        private volatile ScheduledFuture<?> futureHandle;
 
         ScheduledRunnable(Object instance, Method method, Assist assist, Scheduled scheduled) {
             this.instanceRef = new WeakReference<>(instance);
@@ -118,7 +115,11 @@ public class ScheduledTaskInterceptor implements InstanceInterceptor {
             try {
                 Object instance = instanceRef.get();
                 if (instance != null) {
-                    executionCount.incrementAndGet();
+                    // the task can run before its future handle is set, when it can not be canceled yet
+                    int count = executionCount.incrementAndGet();
+                    if (scheduled.executions() >= 0 && count > scheduled.executions()) {
+                        return;
+                    }
                     String originalThreadName = Thread.currentThread().getName();
                     try {
                         Thread.currentThread().setName(threadName());
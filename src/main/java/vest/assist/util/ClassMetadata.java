@@ -0,0 +1,215 @@
+package vest.assist.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The name, superclass name, and runtime visible annotations of a class, read directly from the bytes of its class
+ * file. Reading the metadata does not load (or initialize) the class, which lets the {@link PackageScanner} decide
+ * whether a class is worth loading at all.
+ * <p>
+ * Only what is needed to find the class level <code>RuntimeVisibleAnnotations</code> attribute is parsed: the constant
+ * pool, the class header, and the attribute tables (the contents of fields, methods and other attributes are skipped).
+ */
+public final class ClassMetadata {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    /**
+     * Read the class metadata from the class file bytes in the given stream. The stream is not closed.
+     *
+     * @param classFile The stream positioned at the start of the class file
+     * @return The metadata for the class
+     * @throws IOException              if the stream can not be read
+     * @throws IllegalArgumentException if the bytes are not a valid class file
+     */
+    public static ClassMetadata read(InputStream classFile) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(classFile));
+        if (in.readInt() != MAGIC) {
+            throw new IllegalArgumentException("not a class file, invalid magic number");
+        }
+        // minor and major version
+        in.skipBytes(4);
+
+        int poolSize = in.readUnsignedShort();
+        String[] utf8 = new String[poolSize];
+        int[] classNameIndex = new int[poolSize];
+        for (int i = 1; i < poolSize; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1: // Utf8
+                    utf8[i] = in.readUTF();
+                    break;
+                case 7: // Class
+                    classNameIndex[i] = in.readUnsignedShort();
+                    break;
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    in.skipBytes(2);
+                    break;
+                case 15: // MethodHandle
+                    in.skipBytes(3);
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    in.skipBytes(4);
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    in.skipBytes(8);
+                    // 8 byte constants take up two entries
+                    i++;
+                    break;
+                default:
+                    throw new IllegalArgumentException("not a class file, unknown constant pool tag " + tag);
+            }
+        }
+
+        // access flags
+        in.skipBytes(2);
+        String className = toClassName(utf8[classNameIndex[in.readUnsignedShort()]]);
+        int superIndex = in.readUnsignedShort();
+        String superClassName = superIndex != 0 ? toClassName(utf8[classNameIndex[superIndex]]) : null;
+        int interfaces = in.readUnsignedShort();
+        in.skipBytes(interfaces * 2);
+
+        // fields, then methods
+        for (int members = 0; members < 2; members++) {
+            int count = in.readUnsignedShort();
+            for (int i = 0; i < count; i++) {
+                // access flags, name, descriptor
+                in.skipBytes(6);
+                skipAttributes(in);
+            }
+        }
+
+        Set<String> annotations = Collections.emptySet();
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            String name = utf8[in.readUnsignedShort()];
+            int length = in.readInt();
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) {
+                int count = in.readUnsignedShort();
+                annotations = new LinkedHashSet<>(count * 2);
+                for (int a = 0; a < count; a++) {
+                    annotations.add(readAnnotation(in, utf8));
+                }
+                // nothing else in the class file is needed
+                break;
+            } else {
+                skipFully(in, length);
+            }
+        }
+        return new ClassMetadata(className, superClassName, Collections.unmodifiableSet(annotations));
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            // name
+            in.skipBytes(2);
+            skipFully(in, in.readInt());
+        }
+    }
+
+    private static String readAnnotation(DataInputStream in, String[] utf8) throws IOException {
+        String descriptor = utf8[in.readUnsignedShort()];
+        int pairs = in.readUnsignedShort();
+        for (int i = 0; i < pairs; i++) {
+            // element name
+            in.skipBytes(2);
+            skipElementValue(in, utf8);
+        }
+        // Lcom/foo/Bar; -> com.foo.Bar
+        return toClassName(descriptor.substring(1, descriptor.length() - 1));
+    }
+
+    private static void skipElementValue(DataInputStream in, String[] utf8) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 'e':
+                // enum type and constant name
+                in.skipBytes(4);
+                break;
+            case '@':
+                readAnnotation(in, utf8);
+                break;
+            case '[':
+                int values = in.readUnsignedShort();
+                for (int i = 0; i < values; i++) {
+                    skipElementValue(in, utf8);
+                }
+                break;
+            default:
+                // constant value or class: a single constant pool index
+                in.skipBytes(2);
+        }
+    }
+
+    private static void skipFully(DataInputStream in, int length) throws IOException {
+        int remaining = length;
+        while (remaining > 0) {
+            int skipped = in.skipBytes(remaining);
+            if (skipped <= 0) {
+                throw new IllegalArgumentException("not a class file, unexpected end of stream");
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private static String toClassName(String internalName) {
+        return internalName.replace(PackageScanner.PATH_SEPARATOR, PackageScanner.PACKAGE_SEPARATOR);
+    }
+
+    private final String className;
+    private final String superClassName;
+    private final Set<String> annotations;
+
+    ClassMetadata(String className, String superClassName, Set<String> annotations) {
+        this.className = className;
+        this.superClassName = superClassName;
+        this.annotations = annotations;
+    }
+
+    /**
+     * @return The binary name of the class, e.g. com.foo.Outer$Inner
+     */
+    public String className() {
+        return className;
+    }
+
+    /**
+     * @return The binary name of the superclass, or null if the class has no superclass (java.lang.Object and
+     * module-info)
+     */
+    public String superClassName() {
+        return superClassName;
+    }
+
+    /**
+     * @return The binary names of the runtime visible annotations declared directly on the class (inherited annotations
+     * are not included)
+     */
+    public Set<String> annotations() {
+        return annotations;
+    }
+
+    @Override
+    public String toString() {
+        return "ClassMetadata[" + className + " extends " + superClassName + ", annotations=" + annotations + "]";
+    }
+}
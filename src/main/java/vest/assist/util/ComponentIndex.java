@@ -0,0 +1,192 @@
+package vest.assist.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.stream.Stream;
+
+/**
+ * The build time alternative to {@link PackageScanner}. Reads the <code>META-INF/assist.components</code> resources
+ * written by {@link vest.assist.processor.ComponentIndexProcessor}, each line of which maps a class name to the runtime
+ * annotations present on the class:
+ * <pre>
+ * com.foo.service.UserService=javax.inject.Singleton,vest.assist.annotations.Eager
+ * </pre>
+ * Finding the classes under a package with a given annotation is then a lookup, no classpath walking or class loading
+ * is involved except for the matching classes.
+ * <p>
+ * The index only describes the classpath roots (directories or jars) that contain an index resource. Classes in roots
+ * that were built without the processor are found by scanning those roots, see
+ * {@link PackageScanner#scan(String, Class, ScanCache, ComponentIndex)}. Setting the system property
+ * <code>assist.index.ignore=true</code> disables the index and reverts to scanning every root.
+ */
+public final class ComponentIndex {
+
+    /**
+     * The location of the index resources.
+     */
+    public static final String INDEX_LOCATION = "META-INF/assist.components";
+
+    /**
+     * The system property that, when set to true, disables the use of the index.
+     */
+    public static final String IGNORE_INDEX_PROPERTY = "assist.index.ignore";
+
+    // the cached indexes only hold names, never the class loader (or its classes), so the loader can still be collected
+    private static final Map<ClassLoader, Optional<ComponentIndex>> CACHE = new WeakHashMap<>();
+
+    /**
+     * Load the index visible to the current thread's ClassLoader.
+     *
+     * @return The index, or null if no index resource exists or the index has been disabled
+     * @see #load(ClassLoader)
+     */
+    public static ComponentIndex load() {
+        return load(PackageScanner.defaultClassLoader());
+    }
+
+    /**
+     * Load the index visible to the given ClassLoader. All index resources are merged into a single index, which is
+     * cached for the lifetime of the ClassLoader.
+     *
+     * @param classLoader The ClassLoader to read the index resources from
+     * @return The index, or null if no index resource exists or the index has been disabled
+     * @throws UncheckedIOException if an index resource can not be read
+     */
+    public static ComponentIndex load(ClassLoader classLoader) {
+        if (Boolean.getBoolean(IGNORE_INDEX_PROPERTY)) {
+            return null;
+        }
+        synchronized (CACHE) {
+            return CACHE.computeIfAbsent(classLoader, cl -> Optional.ofNullable(read(cl))).orElse(null);
+        }
+    }
+
+    private static ComponentIndex read(ClassLoader classLoader) {
+        Enumeration<URL> resources;
+        try {
+            resources = classLoader.getResources(INDEX_LOCATION);
+        } catch (IOException e) {
+            throw new UncheckedIOException("error getting resources for path: " + INDEX_LOCATION, e);
+        }
+        if (!resources.hasMoreElements()) {
+            return null;
+        }
+        Set<String> roots = new HashSet<>();
+        Map<String, List<String>> annotationToClasses = new HashMap<>(64);
+        for (URL url : Collections.list(resources)) {
+            roots.add(root(url, INDEX_LOCATION));
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    int i = line.indexOf('=');
+                    if (line.isEmpty() || line.charAt(0) == '#' || i < 0) {
+                        continue;
+                    }
+                    String className = line.substring(0, i).trim();
+                    for (String annotation : line.substring(i + 1).split(",")) {
+                        annotationToClasses.computeIfAbsent(annotation.trim(), a -> new ArrayList<>()).add(className);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("error reading component index: " + url, e);
+            }
+        }
+        return new ComponentIndex(roots, annotationToClasses);
+    }
+
+    // the classpath root (directory or jar) a resource was found in, e.g. jar:file:/app/lib/service.jar!/
+    static String root(URL resource, String resourcePath) {
+        String url = resource.toString();
+        if (url.endsWith("/")) {
+            url = url.substring(0, url.length() - 1);
+        }
+        return url.endsWith(resourcePath) ? url.substring(0, url.length() - resourcePath.length()) : url;
+    }
+
+    private final Set<String> roots;
+    private final Map<String, List<String>> annotationToClasses;
+
+    private ComponentIndex(Set<String> roots, Map<String, List<String>> annotationToClasses) {
+        this.roots = roots;
+        this.annotationToClasses = annotationToClasses;
+    }
+
+    /**
+     * Check if a resource is in a classpath root that has been indexed.
+     *
+     * @param resource     The URL of the resource, as returned by {@link ClassLoader#getResources(String)}
+     * @param resourcePath The path the resource was looked up with, e.g. <code>com/foo/service</code>
+     * @return true if the classes in the root of the resource are part of this index
+     */
+    public boolean indexes(URL resource, String resourcePath) {
+        return roots.contains(root(resource, resourcePath));
+    }
+
+    /**
+     * Find the names of the indexed classes (recursively) under the given package that have the target annotation.
+     *
+     * @param packageName The base package name
+     * @param target      The annotation the classes must have
+     * @return A Stream of the matching class names, suitable for {@link ClassLoader#loadClass(String)}
+     */
+    public Stream<String> classNames(String packageName, Class<? extends Annotation> target) {
+        if (packageName == null || packageName.isEmpty()) {
+            throw new IllegalArgumentException("invalid base package, must be non-null and non-empty");
+        }
+        String prefix = packageName + PackageScanner.PACKAGE_SEPARATOR;
+        return annotationToClasses.getOrDefault(target.getName(), Collections.emptyList())
+                .stream()
+                .filter(className -> className.startsWith(prefix))
+                .distinct();
+    }
+
+    /**
+     * Load the indexed classes (recursively) under the given package that have the target annotation, using the
+     * current thread's ClassLoader.
+     *
+     * @param packageName The base package name
+     * @param target      The annotation the classes must have
+     * @return A Stream of the matching classes
+     * @throws RuntimeException if an indexed class can not be loaded
+     * @see #scan(String, Class, ClassLoader)
+     */
+    public Stream<Class<?>> scan(String packageName, Class<? extends Annotation> target) {
+        return scan(packageName, target, PackageScanner.defaultClassLoader());
+    }
+
+    /**
+     * Load the indexed classes (recursively) under the given package that have the target annotation.
+     *
+     * @param packageName The base package name
+     * @param target      The annotation the classes must have
+     * @param classLoader The ClassLoader to load the classes with, normally the one the index was loaded from
+     * @return A Stream of the matching classes
+     * @throws RuntimeException if an indexed class can not be loaded
+     */
+    public Stream<Class<?>> scan(String packageName, Class<? extends Annotation> target, ClassLoader classLoader) {
+        return classNames(packageName, target)
+                .map(className -> {
+                    try {
+                        return classLoader.loadClass(className);
+                    } catch (ClassNotFoundException e) {
+                        throw new RuntimeException("indexed class is missing from the class path: " + className, e);
+                    }
+                });
+    }
+}
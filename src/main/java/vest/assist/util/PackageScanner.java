@@ -1,14 +1,22 @@
 package vest.assist.util;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.net.JarURLConnection;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.net.URLDecoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collections;
-import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.jar.JarFile;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 
@@ -33,11 +41,18 @@ public final class PackageScanner {
      * @throws RuntimeException for any errors found while performing the classpath scan
      */
     public static Stream<Class<?>> scan(String packageName) {
+        return scan(packageName, defaultClassLoader());
+    }
+
+    /**
+     * @return The current thread's ClassLoader, or the system ClassLoader if the thread does not have one
+     */
+    public static ClassLoader defaultClassLoader() {
         ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
         if (classLoader == null) {
             classLoader = ClassLoader.getSystemClassLoader();
         }
-        return scan(packageName, classLoader);
+        return classLoader;
     }
 
     /**
@@ -50,17 +65,104 @@ public final class PackageScanner {
      */
     public static Stream<Class<?>> scan(String packageName, ClassLoader classLoader) {
         return scanClassNames(packageName, classLoader)
-                .map(className -> {
-                    try {
-                        return classLoader.loadClass(className);
-                    } catch (ClassNotFoundException e) {
-                        throw new RuntimeException("unscannable class path", e);
-                    }
-                });
+                .map(className -> load(className, classLoader));
+    }
+
+    private static Class<?> load(String className, ClassLoader classLoader) {
+        try {
+            return classLoader.loadClass(className);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("unscannable class path", e);
+        }
     }
 
     /**
-     * Using the provided ClassLoader, scan the classpath (recursively) under the given package name.
+     * Using the current thread's ClassLoader, scan the classpath (recursively) under the given package name for classes
+     * that have the target annotation. Only the classes whose class files carry the annotation are loaded; see
+     * {@link #scanClassNames(String, Class, ClassLoader)}.
+     *
+     * @param packageName The base package name to start the classpath scan in
+     * @param target      The annotation the classes must have
+     * @return A Stream of the Classes found. Classes that could not be checked without loading them are included, so
+     * the caller must still confirm the annotation is present.
+     * @throws RuntimeException for any errors found while performing the classpath scan
+     */
+    public static Stream<Class<?>> scan(String packageName, Class<? extends Annotation> target) {
+        return scan(packageName, target, null);
+    }
+
+    /**
+     * Using the current thread's ClassLoader, scan the classpath (recursively) under the given package name for classes
+     * that have the target annotation, reading and updating the given cache for jar files.
+     *
+     * @param packageName The base package name to start the classpath scan in
+     * @param target      The annotation the classes must have
+     * @param cache       The cache of jar contents to use, may be null
+     * @return A Stream of the Classes found. Classes that could not be checked without loading them are included, so
+     * the caller must still confirm the annotation is present.
+     * @throws RuntimeException for any errors found while performing the classpath scan
+     * @see ScanCache
+     */
+    public static Stream<Class<?>> scan(String packageName, Class<? extends Annotation> target, ScanCache cache) {
+        return scan(packageName, target, cache, null);
+    }
+
+    /**
+     * Using the current thread's ClassLoader, find the classes (recursively) under the given package name that have
+     * the target annotation. The classes in the classpath roots covered by the given component index are taken from
+     * the index; the roots that have no index are scanned, reading and updating the given cache for jar files.
+     *
+     * @param packageName The base package name to start the classpath scan in
+     * @param target      The annotation the classes must have
+     * @param cache       The cache of jar contents to use, may be null
+     * @param index       The component index to use, may be null to scan every root
+     * @return A Stream of the Classes found. Classes that could not be checked without loading them are included, so
+     * the caller must still confirm the annotation is present.
+     * @throws RuntimeException for any errors found while performing the classpath scan
+     */
+    public static Stream<Class<?>> scan(String packageName, Class<? extends Annotation> target, ScanCache cache, ComponentIndex index) {
+        ClassLoader classLoader = defaultClassLoader();
+        Stream<String> classNames = scanRoots(packageName, target, classLoader, cache, index);
+        if (index != null) {
+            classNames = Stream.concat(index.classNames(packageName, target), classNames).distinct();
+        }
+        return classNames.map(className -> load(className, classLoader));
+    }
+
+    /**
+     * Using the provided ClassLoader, scan the classpath (recursively) under the given package name for the names of
+     * classes that have the target annotation. Annotations are detected by reading the class file bytes
+     * (see {@link ClassMetadata}); no classes are loaded. If the target annotation is {@link Inherited}, the class
+     * files of the superclasses are read as well.
+     *
+     * @param packageName The base package name to start the classpath scan in
+     * @param target      The annotation the classes must have
+     * @param classLoader The ClassLoader to use to enumerate and read the classes
+     * @return A Stream of the names of the classes found. Classes whose class file could not be read are included.
+     */
+    public static Stream<String> scanClassNames(String packageName, Class<? extends Annotation> target, ClassLoader classLoader) {
+        return scanClassNames(packageName, target, classLoader, null);
+    }
+
+    /**
+     * Same as {@link #scanClassNames(String, Class, ClassLoader)}, but jar files are read through the given cache. The
+     * contents of a jar that has not changed since it was cached are taken from the cache without opening the jar.
+     *
+     * @param packageName The base package name to start the classpath scan in
+     * @param target      The annotation the classes must have
+     * @param classLoader The ClassLoader to use to enumerate and read the classes
+     * @param cache       The cache of jar contents to use, may be null
+     * @return A Stream of the names of the classes found. Classes whose class file could not be read are included.
+     */
+    public static Stream<String> scanClassNames(String packageName, Class<? extends Annotation> target, ClassLoader classLoader, ScanCache cache) {
+        return scanRoots(packageName, target, classLoader, cache, null);
+    }
+
+    /**
+     * Using the provided ClassLoader, scan the classpath (recursively) under the given package name. When the package
+     * is spread over multiple classpath roots (directories or jars), the roots are scanned in parallel in the common
+     * {@link java.util.concurrent.ForkJoinPool}. Every directory stream and jar file opened for the scan is closed
+     * before this method returns.
      *
      * @param packageName The base package name to start the classpath scan in
      * @param classLoader The ClassLoader to use to enumerate the class names
@@ -68,68 +170,136 @@ public final class PackageScanner {
      * i.e. The names returned can be used in {@link Class#forName(String)} or {@link ClassLoader#loadClass(String)}.
      */
     public static Stream<String> scanClassNames(String packageName, ClassLoader classLoader) {
+        return scanRoots(packageName, null, classLoader, null, null);
+    }
+
+    /**
+     * Same as {@link #scanClassNames(String, ClassLoader)}, but jar files are read through the given cache.
+     *
+     * @param packageName The base package name to start the classpath scan in
+     * @param classLoader The ClassLoader to use to enumerate the class names
+     * @param cache       The cache of jar contents to use, may be null
+     * @return A Stream of all the names of the classes found
+     */
+    public static Stream<String> scanClassNames(String packageName, ClassLoader classLoader, ScanCache cache) {
+        return scanRoots(packageName, null, classLoader, cache, null);
+    }
+
+    // scans the roots that contain the package, except the roots covered by the index
+    private static Stream<String> scanRoots(String packageName, Class<? extends Annotation> target, ClassLoader classLoader, ScanCache cache, ComponentIndex index) {
         if (packageName == null || packageName.isEmpty()) {
             throw new IllegalArgumentException("invalid base package, must be non-null and non-empty");
         }
         String path = toPathNotation(packageName);
-        Enumeration<URL> resources;
+        List<URL> roots;
         try {
-            resources = classLoader.getResources(path);
+            roots = Collections.list(classLoader.getResources(path));
         } catch (IOException e) {
             throw new UncheckedIOException("error getting resources for path: " + path, e);
         }
-        return Collections.list(resources)
-                .stream()
+        if (index != null) {
+            roots.removeIf(url -> index.indexes(url, path));
+        }
+        Stream<URL> stream = roots.size() > 1 ? roots.parallelStream() : roots.stream();
+        return stream
                 .flatMap(url -> {
                     try {
                         if (url.getProtocol().equals("jar")) {
-                            return findClassesJarFile(url, path);
+                            Path jar = Paths.get(((JarURLConnection) url.openConnection()).getJarFileURL().toURI());
+                            if (cache != null) {
+                                Map<String, ClassMetadata> contents = cache.contents(jar);
+                                return filter(findClassesCached(contents, packageName), target, name -> contents.containsKey(name) ? contents.get(name) : readMetadata(name, classLoader));
+                            }
+                            return filter(findClassesJarFile(jar, path), target, name -> readMetadata(name, classLoader));
                         } else {
-                            return findClassesClassPath(new File(url.toURI()), packageName);
+                            return filter(findClassesClassPath(Paths.get(url.toURI()), packageName), target, name -> readMetadata(name, classLoader));
                         }
                     } catch (URISyntaxException | IOException e) {
                         throw new RuntimeException("un-scannable class path", e);
                     }
-                });
+                })
+                .collect(Collectors.toList())
+                .stream();
+    }
+
+    private static Stream<String> filter(List<String> classNames, Class<? extends Annotation> target, Function<String, ClassMetadata> metadata) {
+        if (target == null) {
+            return classNames.stream();
+        }
+        boolean inherited = target.isAnnotationPresent(Inherited.class);
+        return classNames.stream()
+                .filter(className -> hasAnnotation(className, target.getName(), inherited, metadata));
     }
 
-    private static Stream<String> findClassesClassPath(File directory, String packageName) {
-        if (!directory.exists()) {
-            return Stream.empty();
+    private static boolean hasAnnotation(String className, String annotation, boolean inherited, Function<String, ClassMetadata> metadataLookup) {
+        String current = className;
+        while (current != null && !current.equals("java.lang.Object")) {
+            ClassMetadata metadata = metadataLookup.apply(current);
+            if (metadata == null) {
+                // undecidable without loading the class, let the caller check it
+                return true;
+            }
+            if (metadata.annotations().contains(annotation)) {
+                return true;
+            }
+            current = inherited ? metadata.superClassName() : null;
         }
-        File[] files = directory.listFiles();
-        if (files == null || files.length == 0) {
-            return Stream.empty();
+        return false;
+    }
+
+    private static ClassMetadata readMetadata(String className, ClassLoader classLoader) {
+        try (InputStream in = classLoader.getResourceAsStream(toPathNotation(className) + CLASS_EXT)) {
+            return in != null ? ClassMetadata.read(in) : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static List<String> findClassesClassPath(Path directory, String packageName) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
         }
-        return Stream.of(files)
-                .flatMap(file -> {
-                    if (file.isDirectory()) {
-                        if (file.getName().contains(".")) {
-                            throw new RuntimeException("un-scannable class path, found a dot in a directory name?");
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files
+                    .filter(file -> {
+                        if (Files.isDirectory(file)) {
+                            if (file.getFileName().toString().contains(".") && !file.equals(directory)) {
+                                throw new RuntimeException("un-scannable class path, found a dot in a directory name?");
+                            }
+                            return false;
                         }
-                        return findClassesClassPath(file, packageName + PACKAGE_SEPARATOR + file.getName());
-                    } else if (file.getName().endsWith(CLASS_EXT)) {
-                        String className = packageName + PACKAGE_SEPARATOR + trimClassFile(file.getName());
-                        return Stream.of(className);
-                    } else {
-                        return Stream.empty();
-                    }
-                });
+                        return file.getFileName().toString().endsWith(CLASS_EXT);
+                    })
+                    .map(file -> packageName + PACKAGE_SEPARATOR + trimClassFile(directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/")))
+                    .collect(Collectors.toList());
+        }
     }
 
-    private static Stream<String> findClassesJarFile(URL jarUrl, String packageName) throws IOException {
-        String path = toPathNotation(packageName);
-        String jarFileName = URLDecoder.decode(jarUrl.getFile(), "UTF-8");
-        jarFileName = jarFileName.substring(5, jarFileName.indexOf("!"));
-        JarFile jf = new JarFile(jarFileName);
-        return Collections.list(jf.entries())
+    private static List<String> findClassesJarFile(Path jarFile, String path) throws IOException {
+        String prefix = path + PATH_SEPARATOR;
+        // JarFile reads the central directory directly, walking a zip FileSystem was measured several times slower
+        try (JarFile jar = new JarFile(jarFile.toFile())) {
+            return jar.stream()
+                    .map(ZipEntry::getName)
+                    .filter(name -> isScannable(name) && name.startsWith(prefix))
+                    .map(PackageScanner::trimClassFile)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> findClassesCached(Map<String, ClassMetadata> contents, String packageName) {
+        String prefix = packageName + PACKAGE_SEPARATOR;
+        return contents.keySet()
                 .stream()
-                .map(ZipEntry::getName)
-                .filter(name -> name.startsWith(path) && name.endsWith(CLASS_EXT) && !name.contains("$"))
-                .map(PackageScanner::trimClassFile);
+                .filter(name -> name.startsWith(prefix))
+                .collect(Collectors.toList());
+    }
+
+    static boolean isScannable(String entryName) {
+        return entryName.endsWith(CLASS_EXT) && entryName.indexOf('$') < 0;
     }
 
-    private static String trimClassFile(String name) {
+    static String trimClassFile(String name) {
         String temp = toPackageNotation(name.trim());
         if (temp.endsWith(CLASS_EXT)) {
             temp = temp.substring(0, temp.length() - CLASS_EXT.length());
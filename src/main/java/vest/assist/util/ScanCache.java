@@ -0,0 +1,208 @@
+package vest.assist.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * An on-disk cache of the scannable contents of jar files, used by the {@link PackageScanner} to avoid re-reading jars
+ * that have not changed since the last time they were scanned (e.g. across restarts of the same deployment).
+ * <p>
+ * For each jar the cache stores the {@link ClassMetadata} (name, superclass and runtime annotations) of every top level
+ * class, keyed by the absolute path, size and last modified time of the jar. When any of those change, the jar is
+ * read again and its cache file is replaced. Directories on the classpath are never cached, they are expected to
+ * change (e.g. during development) without their own timestamps changing.
+ * <p>
+ * Each jar is cached in its own file in the cache directory; the cache can be shared by any number of Assist
+ * instances and processes. Failing to write a cache file does not fail the scan.
+ */
+public final class ScanCache {
+
+    /**
+     * The system property that, when set, enables the scan cache for new Assist instances using the property value as
+     * the cache directory.
+     */
+    public static final String CACHE_DIRECTORY_PROPERTY = "assist.scan.cache";
+
+    private static final String HEADER = "# assist scan cache v1";
+    private static final String UNREADABLE = "?";
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Create a scan cache for the directory specified by the {@value #CACHE_DIRECTORY_PROPERTY} system property.
+     *
+     * @return The scan cache, or null if the property is not set
+     */
+    public static ScanCache fromSystemProperty() {
+        String directory = System.getProperty(CACHE_DIRECTORY_PROPERTY);
+        if (directory == null || directory.trim().isEmpty()) {
+            return null;
+        }
+        return new ScanCache(Paths.get(directory.trim()));
+    }
+
+    private final Path directory;
+
+    /**
+     * Create a new scan cache.
+     *
+     * @param directory The directory to store the cache files in, it will be created if necessary
+     */
+    public ScanCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return The directory the cache files are stored in
+     */
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * Get the scannable contents of the given jar file, from the cache if it is current, else by reading the jar.
+     *
+     * @param jar The jar file
+     * @return The metadata for the top level classes in the jar keyed by class name; the metadata is null for classes
+     * whose class file could not be parsed
+     * @throws IOException if the jar file can not be read
+     */
+    Map<String, ClassMetadata> contents(Path jar) throws IOException {
+        Path absolute = jar.toAbsolutePath().normalize();
+        String key = absolute + "\n" + Files.size(absolute) + "\n" + Files.getLastModifiedTime(absolute).toMillis();
+        Path cacheFile = directory.resolve(cacheFileName(absolute));
+
+        Map<String, ClassMetadata> cached = read(cacheFile, key);
+        if (cached != null) {
+            return cached;
+        }
+        Map<String, ClassMetadata> contents = readJar(absolute);
+        write(cacheFile, key, contents);
+        return contents;
+    }
+
+    private static String cacheFileName(Path jar) {
+        String name = jar.getFileName().toString().replaceAll("[^A-Za-z0-9._-]", "_");
+        return name + '-' + Integer.toHexString(jar.toString().hashCode()) + ".scan";
+    }
+
+    private static Map<String, ClassMetadata> read(Path cacheFile, String key) {
+        if (!Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) {
+                return null;
+            }
+            // path, size, and modified time must all match the jar
+            for (String expected : key.split("\n")) {
+                if (!expected.equals(reader.readLine())) {
+                    return null;
+                }
+            }
+            Map<String, ClassMetadata> contents = new LinkedHashMap<>(1024);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    contents.put(line.substring(0, line.indexOf(SEPARATOR)), parse(line));
+                }
+            }
+            return contents;
+        } catch (IOException | RuntimeException e) {
+            // a corrupt cache file is treated as a miss and rewritten
+            return null;
+        }
+    }
+
+    // className|superClassName|annotation,annotation or className|? for unparseable class files
+    private static ClassMetadata parse(String line) {
+        String[] parts = line.split("\\|", -1);
+        if (parts.length == 2 && UNREADABLE.equals(parts[1])) {
+            return null;
+        }
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("malformed scan cache line: " + line);
+        }
+        Set<String> annotations = parts[2].isEmpty()
+                ? Collections.emptySet()
+                : Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(parts[2].split(","))));
+        return new ClassMetadata(parts[0], parts[1].isEmpty() ? null : parts[1], annotations);
+    }
+
+    private static Map<String, ClassMetadata> readJar(Path jarFile) throws IOException {
+        Map<String, ClassMetadata> contents = new LinkedHashMap<>(1024);
+        try (JarFile jar = new JarFile(jarFile.toFile())) {
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (!PackageScanner.isScannable(entry.getName())) {
+                    continue;
+                }
+                String className = PackageScanner.trimClassFile(entry.getName());
+                ClassMetadata metadata;
+                try (InputStream in = jar.getInputStream(entry)) {
+                    metadata = ClassMetadata.read(in);
+                } catch (IOException | RuntimeException e) {
+                    metadata = null;
+                }
+                contents.put(className, metadata);
+            }
+        }
+        return contents;
+    }
+
+    private void write(Path cacheFile, String key, Map<String, ClassMetadata> contents) {
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, cacheFile.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                writer.newLine();
+                writer.write(key);
+                writer.newLine();
+                for (Map.Entry<String, ClassMetadata> entry : contents.entrySet()) {
+                    ClassMetadata metadata = entry.getValue();
+                    writer.write(entry.getKey());
+                    writer.write(SEPARATOR);
+                    if (metadata == null) {
+                        writer.write(UNREADABLE);
+                    } else {
+                        writer.write(metadata.superClassName() != null ? metadata.superClassName() : "");
+                        writer.write(SEPARATOR);
+                        writer.write(String.join(",", metadata.annotations()));
+                    }
+                    writer.newLine();
+                }
+            }
+            // readers in other processes must never see a partially written file
+            try {
+                Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // the cache is an optimization only, the next scan will try again
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ScanCache[" + directory + "]";
+    }
+}
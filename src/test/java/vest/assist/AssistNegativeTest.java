@@ -8,15 +8,20 @@ import vest.assist.annotations.Eager;
 import vest.assist.annotations.Factory;
 import vest.assist.annotations.Lazy;
 import vest.assist.annotations.Scheduled;
-import vest.assist.app.CoffeeMaker;
+import vest.assist.app.Coosie;
+import vest.assist.app.FrenchPress;
 import vest.assist.app.LoggingAspect;
+import vest.assist.app.TCCircularDependency;
 import vest.assist.app.TCInvalidClass1;
 import vest.assist.app.TCInvalidClass2;
+import vest.assist.app.TCInvalidGraph;
 import vest.assist.app.Teapot;
 import vest.assist.app.TimingAspect;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
@@ -43,6 +48,81 @@ public class AssistNegativeTest extends Assert {
         assist.addConfig(Number.class);
     }
 
+    @Test
+    public void circularDependencies() {
+        Assist a = new Assist();
+        assertCircular(() -> a.instance(TCCircularDependency.Left.class),
+                "TCCircularDependency.Left -> vest.assist.app.TCCircularDependency.Right -> vest.assist.app.TCCircularDependency.Left");
+        // through field injection, and through a singleton that is still being created
+        assertCircular(() -> a.instance(Ping.class),
+                "AssistNegativeTest.Ping -> vest.assist.AssistNegativeTest.Pong -> vest.assist.AssistNegativeTest.Ping");
+        a.addConfig(new TCCircularDependency.Config());
+        assertCircular(() -> a.instance(String.class, "hen"), "String(@javax.inject.Named(");
+    }
+
+    // not in vest.assist.app, the @Scan of AppConfig would pick up the cycle
+    @Singleton
+    public static class Ping {
+        @Inject
+        public Pong pong;
+    }
+
+    public static class Pong {
+        @Inject
+        public Ping ping;
+    }
+
+    private static void assertCircular(Runnable runnable, String path) {
+        try {
+            runnable.run();
+            fail("the dependencies are circular");
+        } catch (RuntimeException e) {
+            Throwable t = e;
+            while (!(t instanceof IllegalStateException)) {
+                assertNotNull(t.getCause(), "no circular dependency error found in " + e);
+                t = t.getCause();
+            }
+            assertTrue(t.getMessage().startsWith("circular dependency: "), t.getMessage());
+            assertTrue(t.getMessage().contains(path), t.getMessage());
+        }
+    }
+
+    @Test
+    public void validateInvalidGraph() {
+        Assist a = new Assist();
+        a.addConfig(TCInvalidGraph.class);
+        DependencyGraph graph = a.dependencyGraph();
+        assertEquals(graph.unsatisfied().size(), 1);
+        assertEquals(graph.unsatisfied().get(0).source().type(), Coosie.class);
+        assertEquals(graph.cycles().size(), 1);
+        try {
+            a.validate();
+            fail("the graph is invalid");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("unsatisfied dependency"), e.getMessage());
+            assertTrue(e.getMessage().contains("dependency cycle"), e.getMessage());
+        }
+        // nothing was created to find the problems
+        assertEquals(TCInvalidGraph.created.get(), 0);
+    }
+
+    @Test
+    public void validateImplementingClass() {
+        Assist a = new Assist();
+        a.addImplementingClass(TCInvalidGraph.Service.class, TCInvalidGraph.ServiceImpl.class);
+        // the injected fields of the implementation are checked, not those of the interface it is bound to
+        List<DependencyGraph.Dependency> unsatisfied = a.dependencyGraph().unsatisfied();
+        assertEquals(unsatisfied.size(), 1);
+        assertEquals(unsatisfied.get(0).source().type(), TCInvalidGraph.Service.class);
+        assertEquals(((Field) unsatisfied.get(0).injectionPoint()).getName(), "coffeeMaker");
+        assertThrows(IllegalStateException.class, a::validate);
+
+        // a lookup that can't tell what it supplies may supply the missing value
+        a.register((ValueLookup) (rawType, genericType, annotatedElement) -> null);
+        assertTrue(a.dependencyGraph().unsatisfied().isEmpty());
+        a.validate();
+    }
+
     @Test(expectedExceptions = RuntimeException.class)
     public void testMissingProvider() {
         assist.providerFor(Set.class);
@@ -95,6 +175,36 @@ public class AssistNegativeTest extends Assert {
         assertThrows(RuntimeException.class, () -> a.instance(Integer.class));
     }
 
+    @Test
+    public void serialEagerInitializationStopsAtFailure() {
+        AtomicInteger attempts = new AtomicInteger();
+        Assist a = new Assist();
+        // independent of each other, so only the failure stops the others from being created
+        assertThrows(RuntimeException.class, () -> a.addConfig(new Object() {
+            @Factory
+            @Eager
+            public String first() {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("first");
+            }
+
+            @Factory
+            @Eager
+            public Integer second() {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("second");
+            }
+
+            @Factory
+            @Eager
+            public Long third() {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("third");
+            }
+        }));
+        assertEquals(attempts.get(), 1);
+    }
+
     public static class AbhorrentConstructor {
         @Inject
         public AbhorrentConstructor(List stuff) {
@@ -161,7 +271,15 @@ public class AssistNegativeTest extends Assert {
                 assist.inject(new Object() {
                     @Inject
                     @Lazy
-                    private CoffeeMaker coffeeMaker;
+                    private FrenchPress coffeeMaker;
+                }));
+        assertThrows(IllegalArgumentException.class, () ->
+                assist.addConfig(new Object() {
+                    @Factory
+                    @Lazy
+                    public FrenchPress frenchPress() {
+                        return new FrenchPress();
+                    }
                 }));
     }
 
@@ -6,8 +6,12 @@ import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
+import vest.assist.annotations.Eager;
 import vest.assist.annotations.Factory;
+import vest.assist.annotations.Primary;
+import vest.assist.annotations.Scheduled;
 import vest.assist.annotations.SkipInjection;
+import vest.assist.app.AppConfig;
 import vest.assist.app.BootConfig;
 import vest.assist.app.Child;
 import vest.assist.app.CoffeeMaker;
@@ -21,33 +25,67 @@ import vest.assist.app.LogValueLookup;
 import vest.assist.app.Parent;
 import vest.assist.app.PourOver;
 import vest.assist.app.ScannedComponent;
+import vest.assist.app.TCAsyncInstances;
+import vest.assist.app.TCChildContainers;
 import vest.assist.app.TCCollectionInjection;
+import vest.assist.app.TCConcurrentCreation;
 import vest.assist.app.TCCustomInjectAnnotation;
+import vest.assist.app.TCEagerInitialization;
+import vest.assist.app.TCGenericBindings;
 import vest.assist.app.TCImport;
 import vest.assist.app.TCLazy;
+import vest.assist.app.TCLazyProxies;
 import vest.assist.app.TCMultipleDependenciesSatisfied;
 import vest.assist.app.TCOptional;
 import vest.assist.app.TCPropertyInjection;
+import vest.assist.app.TCResolvedValues;
 import vest.assist.app.TCScannedComponents;
 import vest.assist.app.TCScheduledMethods;
 import vest.assist.app.TCSkipInjection;
 import vest.assist.app.TCStaticInject;
 import vest.assist.app.Teapot;
+import vest.assist.app.Timed;
 import vest.assist.util.PackageScanner;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Provider;
+import javax.inject.Singleton;
 import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -274,6 +312,229 @@ public class AssistTest extends Assert {
         }
     }
 
+    @Test
+    public void concurrentRegistrationAndLookup() {
+        Assist assist = new Assist();
+        assist.setSingleton(CoffeeMaker.class, new PourOver());
+        List<Class<?>> types = Arrays.asList(ArrayList.class, LinkedList.class, HashMap.class, TreeMap.class, HashSet.class,
+                StringBuilder.class, Random.class, ConcurrentHashMap.class, ArrayDeque.class, Date.class);
+        IntStream.range(0, 1000)
+                .parallel()
+                .forEach(i -> {
+                    assertNotNull(assist.instance(types.get(i % types.size())));
+                    assertEquals(assist.instance(CoffeeMaker.class).getClass(), PourOver.class);
+                });
+        for (Class<?> type : types) {
+            assertTrue(assist.hasProvider(type));
+        }
+    }
+
+    @Test
+    public void concurrentProviderCreation() throws Exception {
+        Assist assist = new Assist();
+        TCConcurrentCreation.SlowWrapper wrapper = new TCConcurrentCreation.SlowWrapper();
+        assist.register(wrapper);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            // different types are built at the same time
+            Future<?> first = executor.submit(() -> assist.instance(TCConcurrentCreation.First.class));
+            Future<?> second = executor.submit(() -> assist.instance(TCConcurrentCreation.Second.class));
+            assertNotNull(first.get());
+            assertNotNull(second.get());
+            assertTrue(wrapper.concurrent.get(TCConcurrentCreation.First.class));
+            assertTrue(wrapper.concurrent.get(TCConcurrentCreation.Second.class));
+
+            // the same type is built once
+            List<Future<Provider<TCConcurrentCreation.Shared>>> shared = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                shared.add(executor.submit(() -> assist.providerFor(TCConcurrentCreation.Shared.class)));
+            }
+            for (Future<Provider<TCConcurrentCreation.Shared>> future : shared) {
+                assertSame(future.get(), shared.get(0).get());
+            }
+            assertEquals(wrapper.wrapped.get(TCConcurrentCreation.Shared.class).get(), 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void resolvedValues() {
+        Assist assist = new Assist();
+        TCResolvedValues.CounterValueLookup counter = new TCResolvedValues.CounterValueLookup();
+        assist.register(counter);
+        TCResolvedValues first = assist.instance(TCResolvedValues.class);
+        TCResolvedValues second = assist.instance(TCResolvedValues.class);
+        // the lookup is resolved once, then the resolver is called directly
+        assertEquals(counter.resolved.get(), 1);
+        assertEquals((int) first.count, 1);
+        assertEquals((int) second.count, 2);
+        assertFalse(second.coffeeMaker.isPresent());
+        assertFalse(second.constructorCoffeeMaker.isPresent());
+
+        // adding a provider discards the resolved values
+        assist.setSingleton(CoffeeMaker.class, new PourOver());
+        TCResolvedValues third = assist.instance(TCResolvedValues.class);
+        assertTrue(third.coffeeMaker.isPresent());
+        assertTrue(third.constructorCoffeeMaker.isPresent());
+
+        // as does registering a value lookup
+        int resolved = counter.resolved.get();
+        assist.register(new LogValueLookup());
+        assertEquals((int) assist.instance(TCResolvedValues.class).count, 4);
+        assertEquals(counter.resolved.get(), resolved + 1);
+
+        // the resolution is kept per instance, other instances injecting the same members don't replace it
+        Assist other = new Assist();
+        TCResolvedValues.CounterValueLookup otherCounter = new TCResolvedValues.CounterValueLookup();
+        other.register(otherCounter);
+        for (int i = 0; i < 3; i++) {
+            other.instance(TCResolvedValues.class);
+            assist.instance(TCResolvedValues.class);
+        }
+        assertEquals(otherCounter.resolved.get(), 1);
+        assertEquals(counter.resolved.get(), resolved + 1);
+    }
+
+    @Test
+    public void boundFactoryParameters() {
+        Assist assist = new Assist();
+        assist.addConfig(new TCResolvedValues.Config());
+        assertEquals(assist.instance(String.class, "brewing"), "nothing");
+        assertEquals(assist.instance(String.class, "brewing"), "nothing");
+        assist.setSingleton(CoffeeMaker.class, new PourOver());
+        assertEquals(assist.instance(String.class, "brewing"), "pouring over");
+    }
+
+    @Test
+    public void validateGraph() {
+        Assist a = new Assist();
+        a.register(new LogValueLookup());
+        a.addConfig(AppConfig.class);
+        DependencyGraph graph = a.validate();
+        log.info("{}", graph);
+        assertTrue(graph.unsatisfied().isEmpty());
+        assertTrue(graph.cycles().isEmpty());
+        AssistProvider<?> teapot = (AssistProvider<?>) a.providerFor(Teapot.class);
+        assertTrue(a.dependencyGraph().dependencies(teapot).stream()
+                .anyMatch(d -> d.providers().stream().anyMatch(p -> p.type() == CoffeeMaker.class)));
+        a.close();
+    }
+
+    @Test
+    public void parallelEagerInitialization() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Assist assist = new Assist();
+            assist.setEagerExecutor(executor);
+            TCEagerInitialization config = new TCEagerInitialization();
+            assist.addConfig(config);
+            // the pool and cache only warm up successfully if they are initialized concurrently
+            assertEquals(config.warmUps.get(), 2);
+            TCEagerInitialization.Service service = assist.instance(TCEagerInitialization.Service.class);
+            assertTrue(service.pool.concurrent);
+            assertTrue(service.cache.concurrent);
+            // the eager singletons are the ones that were initialized
+            assertSame(service.pool, assist.instance(TCEagerInitialization.Pool.class));
+            assertEquals(config.warmUps.get(), 2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void asyncInstances() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Assist assist = new Assist();
+            assist.setAsyncExecutor(executor);
+            assertSame(assist.asyncExecutor(), executor);
+            assist.addConfig(new TCAsyncInstances());
+
+            // the clients only connect successfully if they are created concurrently
+            TCAsyncInstances.Dashboard dashboard = assist.instanceAsync(TCAsyncInstances.Dashboard.class).get(10, TimeUnit.SECONDS);
+            assertTrue(dashboard.users.concurrent);
+            assertTrue(dashboard.orders.concurrent);
+            assertSame(dashboard.users, assist.instance(TCAsyncInstances.UserClient.class));
+
+            TCAsyncInstances.Report report = assist.instance(TCAsyncInstances.Report.class);
+            assertSame(report.users.get(10, TimeUnit.SECONDS), dashboard.users);
+
+            // the dependency graph is only walked again after the bindings change
+            AtomicInteger walked = new AtomicInteger();
+            assist.register(new ValueLookup() {
+                @Override
+                public Object lookup(Class<?> rawType, Type genericType, AnnotatedElement annotatedElement) {
+                    return null;
+                }
+
+                @Override
+                public boolean supports(Class<?> rawType, Type genericType, AnnotatedElement annotatedElement) {
+                    walked.incrementAndGet();
+                    return false;
+                }
+            });
+            assertSame(assist.instanceAsync(TCAsyncInstances.Dashboard.class).get(10, TimeUnit.SECONDS).users, dashboard.users);
+            int walks = walked.get();
+            assertTrue(walks > 0);
+            for (int i = 0; i < 3; i++) {
+                assist.instanceAsync(TCAsyncInstances.Dashboard.class).get(10, TimeUnit.SECONDS);
+                assist.instance(TCAsyncInstances.Report.class).users.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(walked.get(), walks);
+            assist.setSingleton(StringBuilder.class, new StringBuilder());
+            assist.instanceAsync(TCAsyncInstances.Dashboard.class).get(10, TimeUnit.SECONDS);
+            assertTrue(walked.get() > walks);
+
+            CompletableFuture<CoffeeMaker> missing = assist.instanceAsync(CoffeeMaker.class, "missing");
+            assertTrue(missing.isCompletedExceptionally());
+            ExecutionException e = expectThrows(ExecutionException.class, missing::get);
+            assertTrue(e.getCause().getMessage().startsWith("no provider for"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void methodHandleInstantiation() {
+        Assist assist = new Assist();
+        assist.setMethodHandleInstantiation(true);
+        assertTrue(assist.methodHandleInstantiation());
+        assist.register(new LogValueLookup());
+        assist.setSingleton(CoffeeMaker.class, new PourOver());
+        assist.addConfig(new Object() {
+            @Factory
+            @Named("k")
+            public CoffeeMaker keurig(Teapot teapot) {
+                assertNotNull(teapot);
+                return new Keurig();
+            }
+
+            @Factory
+            public String nullFactory() {
+                return null;
+            }
+
+            @Factory
+            public Integer errorFactory() {
+                throw new IllegalArgumentException("bad factory");
+            }
+        });
+        assertEquals(assist.instance(CoffeeMaker.class, "k").getClass(), Keurig.class);
+        assertSame(assist.instance(Teapot.class), assist.instance(Teapot.class));
+        Child c = assist.instance(Child.class);
+        assertEquals(c.getI(), -1);
+        assertNotSame(assist.instance(FrenchPress.class), assist.instance(FrenchPress.class));
+
+        assertThrows(NullPointerException.class, () -> assist.instance(String.class));
+        try {
+            assist.instance(Integer.class);
+            fail("factory should have thrown an exception");
+        } catch (RuntimeException e) {
+            assertEquals(e.getCause().getClass(), IllegalArgumentException.class);
+        }
+    }
+
     @Test
     public void getNamedSuperclassForProvider() {
         InputStream cm = assist.instance(InputStream.class, "bais");
@@ -360,6 +621,39 @@ public class AssistTest extends Assert {
         assertEquals(sched.alternateRun, 1);
     }
 
+    @Test
+    public void scheduledLimitBeforeHandleIsSet() {
+        // runs each task a few times before handing back its future, like a fast executor might
+        ScheduledThreadPoolExecutor eager = new ScheduledThreadPoolExecutor(1) {
+            @Override
+            public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+                for (int i = 0; i < 3; i++) {
+                    command.run();
+                }
+                return super.scheduleAtFixedRate(command, initialDelay, period, unit);
+            }
+        };
+        Assist a = new Assist();
+        a.addConfig(new Object() {
+            @Factory
+            @Named("eager")
+            public ScheduledExecutorService eager() {
+                return eager;
+            }
+        });
+        AtomicInteger runs = new AtomicInteger();
+        a.inject(new Object() {
+            @Scheduled(type = Scheduled.RunType.FIXED_RATE, period = 1, executions = 2, scheduler = "eager")
+            public void task() {
+                runs.incrementAndGet();
+            }
+        });
+        delay(50);
+        eager.shutdownNow();
+        a.close();
+        assertEquals(runs.get(), 2);
+    }
+
     @Test
     public void propertiesTest() {
         TCPropertyInjection prop = assist.instance(TCPropertyInjection.class);
@@ -370,6 +664,194 @@ public class AssistTest extends Assert {
         assertEquals(prop.demoEnum, ConfigurationTest.DemoEnum.CHARLIE);
     }
 
+    @Test
+    public void genericBindings() throws Exception {
+        Assist a = new Assist();
+        a.addConfig(new TCGenericBindings());
+
+        TCGenericBindings.Consumer consumer = a.instance(TCGenericBindings.Consumer.class);
+        assertEquals(consumer.names, Arrays.asList("a", "b"));
+        assertEquals(consumer.numbers, Arrays.asList(1, 2));
+        assertEquals(consumer.numbersProvider.get(), Arrays.asList(1, 2));
+        assertEquals(consumer.makers.keySet(), Collections.singleton("french"));
+        assertEquals(consumer.collected.size(), 1);
+        assertEquals(consumer.collected.get(0).getClass(), FrenchPress.class);
+
+        Type numbers = TCGenericBindings.Consumer.class.getField("numbers").getGenericType();
+        Type numbersProvider = TCGenericBindings.Consumer.class.getField("numbersProvider").getGenericType();
+        assertTrue(a.hasProvider(numbers, null));
+        assertFalse(a.hasProvider(TCGenericBindings.Consumer.class.getField("collected").getGenericType(), null));
+        assertEquals(a.providerFor(numbers, null).get(), Arrays.asList(1, 2));
+        assertSame(a.instance(TCGenericBindings.Consumer.class).makers, consumer.makers);
+        assertEquals(Reflector.getParameterizedType(numbersProvider), List.class);
+        assertEquals(Reflector.getTypeArgument(numbersProvider), numbers);
+
+        a.providerFor(TCGenericBindings.Consumer.class);
+        a.validate();
+        a.freeze();
+        assertEquals(a.providerFor(numbers, null).get(), Arrays.asList(1, 2));
+    }
+
+    @Test
+    public void childContainers() {
+        Assist parent = new Assist();
+        parent.register(new LogValueLookup());
+        TCChildContainers config = new TCChildContainers();
+        parent.addConfig(config);
+        CoffeeMaker shared = parent.instance(CoffeeMaker.class, "shared");
+
+        // the parent has to be frozen explicitly
+        assertThrows(IllegalStateException.class, parent::child);
+        assertFalse(parent.frozen());
+        parent.freeze();
+        Assist child = parent.child();
+        assertFalse(child.frozen());
+        assertThrows(IllegalStateException.class, () -> parent.setSingleton(String.class, "frozen"));
+
+        // the child's own binding shadows the parent's, the parent's singletons are shared
+        PourOver pourOver = new PourOver();
+        child.setSingleton(CoffeeMaker.class, pourOver);
+        assertSame(child.instance(CoffeeMaker.class), pourOver);
+        assertEquals(parent.instance(CoffeeMaker.class).getClass(), FrenchPress.class);
+        assertSame(child.instance(CoffeeMaker.class, "shared"), shared);
+        assertEquals(config.sharedCreated.get(), 1);
+        assertSame(child.instance(Assist.class), child);
+        assertEquals(child.providersFor(CoffeeMaker.class).count(), 2);
+
+        // the same shadowing applies to all providers of a type and to the providers with one qualifier
+        List<Provider<CoffeeMaker>> unqualified = child.providersFor(CoffeeMaker.class, (Annotation) null).collect(Collectors.toList());
+        assertEquals(unqualified.size(), 1);
+        assertSame(unqualified.get(0).get(), pourOver);
+        List<Provider<CoffeeMaker>> sharedProviders = child.providersFor(CoffeeMaker.class, new NamedImpl("shared")).collect(Collectors.toList());
+        assertEquals(sharedProviders.size(), 1);
+        assertSame(sharedProviders.get(0).get(), shared);
+        Set<Provider<CoffeeMaker>> all = child.providersFor(CoffeeMaker.class).collect(Collectors.toSet());
+        assertEquals(all, new HashSet<>(Arrays.asList(unqualified.get(0), sharedProviders.get(0))));
+        // a provider of a subtype shadows the parent's providers with the same qualifier as well
+        Assist subtype = parent.child();
+        PourOver subtypePourOver = new PourOver();
+        subtype.setSingleton(PourOver.class, subtypePourOver);
+        assertSame(subtype.instance(CoffeeMaker.class), subtypePourOver);
+        assertEquals(subtype.providersFor(CoffeeMaker.class, (Annotation) null).map(Provider::get).collect(Collectors.toList()), Collections.singletonList(subtypePourOver));
+        assertEquals(subtype.providersFor(CoffeeMaker.class).map(Provider::get).collect(Collectors.toSet()), new HashSet<>(Arrays.asList(subtypePourOver, shared)));
+        subtype.close();
+
+        // unregistered classes are created in the child, with the child's bindings
+        TCChildContainers.Barista barista = child.instance(TCChildContainers.Barista.class);
+        assertSame(barista.coffeeMaker, pourOver);
+        assertSame(barista.shared, shared);
+        assertThrows(IllegalStateException.class, () -> parent.instance(TCChildContainers.Barista.class));
+
+        // siblings do not see each other, extensions registered with the parent are passed on
+        Assist sibling = parent.child();
+        assertEquals(sibling.instance(CoffeeMaker.class).getClass(), FrenchPress.class);
+        assertNotSame(sibling.instance(TCChildContainers.Barista.class).coffeeMaker, pourOver);
+        assertTrue(sibling.toString().contains(LogValueLookup.class.getSimpleName()));
+
+        child.close();
+        sibling.close();
+        assertSame(parent.instance(CoffeeMaker.class, "shared"), shared);
+    }
+
+    @Test
+    public void childShadowsAnnotatedBindings() {
+        AtomicInteger parentWarmups = new AtomicInteger();
+        AtomicInteger childWarmups = new AtomicInteger();
+        Assist parent = new Assist();
+        parent.addConfig(new Object() {
+            @Factory
+            @Timed
+            @Named("house")
+            public CoffeeMaker house(@Named("unbound") String beans) {
+                return new Keurig();
+            }
+
+            @Factory
+            @Eager
+            @Singleton
+            @Named("warmup")
+            public String warmup() {
+                parentWarmups.incrementAndGet();
+                return "parent";
+            }
+        });
+        assertThrows(IllegalStateException.class, parent::validate);
+        parent.freeze();
+
+        Assist child = parent.child();
+        child.addConfig(new Object() {
+            @Factory
+            @Named("house")
+            public CoffeeMaker house() {
+                return new PourOver();
+            }
+
+            @Factory
+            @Eager
+            @Singleton
+            @Named("warmup")
+            public String warmup() {
+                childWarmups.incrementAndGet();
+                return "child";
+            }
+        });
+        assertEquals(parentWarmups.get(), 1);
+        assertEquals(childWarmups.get(), 1);
+        // the overridden parent bindings are not seen by annotation lookups, listings or validation
+        assertEquals(child.providersForAnnotation(Timed.class).count(), 0);
+        assertEquals(child.providersForAnnotation(Eager.class).map(Provider::get).collect(Collectors.toList()), Collections.singletonList("child"));
+        assertTrue(child.dependencyGraph().providers().stream().noneMatch(p -> p.annotations().stream().anyMatch(a -> a instanceof Timed)));
+        child.validate();
+
+        // a child without the overrides still sees them
+        Assist sibling = parent.child();
+        assertEquals(sibling.providersForAnnotation(Timed.class).count(), 1);
+        assertEquals(sibling.providersForAnnotation(Eager.class).map(Provider::get).collect(Collectors.toList()), Collections.singletonList("parent"));
+        assertEquals(parentWarmups.get(), 1);
+    }
+
+    @Test
+    public void freeze() {
+        Assist a = new Assist();
+        a.addConfig(new Object() {
+            @Factory
+            @Primary
+            @Named("frenchPress")
+            public CoffeeMaker frenchPress() {
+                return new FrenchPress();
+            }
+
+            @Factory
+            @Named("keurig")
+            public CoffeeMaker keurig() {
+                return new Keurig();
+            }
+        });
+        ByteArrayInputStream bais = new ByteArrayInputStream(new byte[0]);
+        a.setSingleton(ByteArrayInputStream.class, bais);
+        // created on demand before freezing
+        Provider<Teapot> teapot = a.providerFor(Teapot.class);
+        Provider<CoffeeMaker> keurig = a.providerFor(CoffeeMaker.class, "keurig");
+
+        assertFalse(a.frozen());
+        a.freeze();
+        a.freeze();
+        assertTrue(a.frozen());
+
+        assertSame(a.providerFor(CoffeeMaker.class, "keurig"), keurig);
+        assertSame(a.providerFor(Teapot.class), teapot);
+        assertEquals(a.instance(CoffeeMaker.class).getClass(), FrenchPress.class);
+        assertEquals(a.instance(CoffeeMaker.class, "frenchPress").getClass(), FrenchPress.class);
+        assertSame(a.instance(InputStream.class), bais);
+        assertSame(a.instance(Assist.class), a);
+        assertFalse(a.hasProvider(CoffeeMaker.class, "missing"));
+        assertEquals(a.providersFor(CoffeeMaker.class).count(), 3);
+
+        assertThrows(IllegalStateException.class, () -> a.instance(FrenchPress.class));
+        assertThrows(IllegalStateException.class, () -> a.setSingleton(String.class, "frozen"));
+        assertThrows(IllegalStateException.class, () -> a.register(new LogValueLookup()));
+    }
+
     @Test
     public void lazy() {
         Assist a = new Assist();
@@ -399,6 +881,44 @@ public class AssistTest extends Assert {
         assertNotEquals(tc.lazyMaker.get(), tc.lazyFancyMaker.get());
     }
 
+    @Test
+    public void lazyProxies() {
+        Assist a = new Assist();
+        TCLazyProxies config = new TCLazyProxies();
+        a.addConfig(config);
+
+        TCLazyProxies.Consumer consumer = a.instance(TCLazyProxies.Consumer.class);
+        assertEquals(config.created.get(), 0);
+        assertTrue(Proxy.isProxyClass(consumer.maker.getClass()));
+        assertTrue(Proxy.isProxyClass(consumer.later.getClass()));
+
+        assertEquals(consumer.maker.brew(), "french");
+        assertEquals(config.created.get(), 1);
+        assertEquals(consumer.fromConstructor.brew(), "french");
+        assertEquals(a.instance(CoffeeMaker.class, "lazyMaker").brew(), "french");
+        assertEquals(config.created.get(), 1);
+
+        assertThrows(() -> consumer.later.brew());
+        a.addConfig(new Object() {
+            @Factory
+            @Named("notYetRegistered")
+            public CoffeeMaker pourOver() {
+                return new PourOver();
+            }
+        });
+        assertEquals(consumer.later.brew(), "pouring over");
+        a.validate();
+
+        // arguments are passed through and exceptions are thrown as is
+        @SuppressWarnings("unchecked")
+        Function<String, String> upper = a.instance(Function.class, "lazyUpper");
+        assertTrue(Proxy.isProxyClass(upper.getClass()));
+        assertEquals(upper.apply("drip"), "DRIP");
+        assertEquals(upper.apply("pour"), "POUR");
+        Callable<?> failure = a.instance(Callable.class, "lazyFailure");
+        assertThrows(IOException.class, failure::call);
+    }
+
     @Test
     public void testSkipInjection() {
         Assist assist = new Assist();
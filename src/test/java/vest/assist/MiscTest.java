@@ -4,15 +4,72 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
 import org.testng.annotations.Test;
+import vest.assist.annotations.Eager;
+import vest.assist.annotations.Factory;
+import vest.assist.annotations.Lazy;
+import vest.assist.annotations.Primary;
+import vest.assist.annotations.Property;
+import vest.assist.annotations.Scan;
 import vest.assist.app.AppConfig;
+import vest.assist.app.Child;
+import vest.assist.app.CoffeeMaker;
+import vest.assist.app.Parent;
 import vest.assist.app.Keurig;
+import vest.assist.app.Leather;
 import vest.assist.app.PourOver;
+import vest.assist.app.ScannedComponent;
+import vest.assist.app.TCCircularDependency;
 import vest.assist.app.TCCollectionInjection;
+import vest.assist.app.TCInvalidClass2;
+import vest.assist.app.TCLazy;
+import vest.assist.app.TCResolvedValues;
+import vest.assist.app.TCPropertyInjection;
 import vest.assist.app.Teapot;
+import vest.assist.provider.AdHocProvider;
+import vest.assist.provider.ConstructorProvider;
+import vest.assist.provider.GeneratedInjector;
+import vest.assist.provider.Instantiator;
+import vest.assist.util.ClassMetadata;
+import vest.assist.util.ComponentIndex;
 import vest.assist.util.PackageScanner;
+import vest.assist.util.ScanCache;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
 
 public class MiscTest extends Assert {
 
@@ -47,6 +104,202 @@ public class MiscTest extends Assert {
                 .anyMatch(c -> c.equals("org.slf4j.impl.SimpleLogger")));
     }
 
+    @Test
+    public void jarScannerTest() throws IOException {
+        Path first = writeJar(0, 20);
+        Path second = writeJar(1, 20);
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{first.toUri().toURL(), second.toUri().toURL()}, null)) {
+            Set<String> scanned = PackageScanner.scanClassNames("bench", classLoader).collect(Collectors.toSet());
+            assertEquals(scanned.size(), 40);
+            assertTrue(scanned.contains("bench.p0.C0_0"));
+            assertTrue(scanned.contains("bench.p19.C1_19"));
+            // inner classes and classes outside the package are left out
+            assertTrue(scanned.stream().allMatch(name -> name.startsWith("bench.") && !name.contains("$")));
+            assertEquals(PackageScanner.scanClassNames("bench.p3", classLoader).collect(Collectors.toSet()),
+                    new HashSet<>(Arrays.asList("bench.p3.C0_3", "bench.p3.C1_3")));
+        } finally {
+            Files.delete(first);
+            Files.delete(second);
+        }
+    }
+
+    // not part of the regular build, run with: mvn test -Pbenchmark
+    @Test(groups = "benchmark")
+    public void jarScannerBenchmark() throws IOException {
+        // 20k classes in the same package tree, split over 4 jars (classpath roots)
+        int jars = 4;
+        int classesPerJar = 5_000;
+        List<Path> paths = new ArrayList<>();
+        try {
+            for (int j = 0; j < jars; j++) {
+                paths.add(writeJar(j, classesPerJar));
+            }
+            URL[] urls = new URL[jars];
+            for (int j = 0; j < jars; j++) {
+                urls[j] = paths.get(j).toUri().toURL();
+            }
+            try (URLClassLoader classLoader = new URLClassLoader(urls, null)) {
+                for (int run = 0; run < 5; run++) {
+                    long start = System.nanoTime();
+                    List<String> legacy = new ArrayList<>();
+                    for (Path jar : paths) {
+                        legacy.addAll(legacyJarScan(jar, "bench"));
+                    }
+                    long legacyTime = System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    List<String> scanned = PackageScanner.scanClassNames("bench", classLoader).collect(Collectors.toList());
+                    long scanTime = System.nanoTime() - start;
+
+                    log.info("scanned {} class names: legacy {}ms, scanner {}ms", scanned.size(), legacyTime / 1_000_000, scanTime / 1_000_000);
+                    assertEquals(scanned.size(), jars * classesPerJar);
+                    assertEquals(new HashSet<>(scanned), legacy.stream().filter(n -> n.startsWith("bench.")).collect(Collectors.toSet()));
+                }
+            }
+        } finally {
+            for (Path path : paths) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    // a jar with the given number of (empty) class entries spread over the packages bench.p0 to bench.p49
+    private static Path writeJar(int j, int classes) throws IOException {
+        Path jar = Files.createTempFile("scanner", ".jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            // directory entries, as written by the jar tool, are what ClassLoader.getResources finds
+            out.putNextEntry(new JarEntry("bench/"));
+            for (int p = 0; p < 50; p++) {
+                out.putNextEntry(new JarEntry("bench/p" + p + "/"));
+            }
+            for (int i = 0; i < classes; i++) {
+                out.putNextEntry(new JarEntry("bench/p" + (i % 50) + "/C" + j + "_" + i + ".class"));
+                out.closeEntry();
+            }
+            out.putNextEntry(new JarEntry("bench/p0/C0$Inner.class"));
+            out.closeEntry();
+            out.putNextEntry(new JarEntry("benchmark/Other.class"));
+            out.closeEntry();
+        }
+        return jar;
+    }
+
+    // the jar scan as PackageScanner used to do it: list every entry, then filter by prefix
+    private static List<String> legacyJarScan(Path jar, String packageName) throws IOException {
+        String path = packageName.replace('.', '/');
+        try (JarFile jf = new JarFile(jar.toFile())) {
+            return Collections.list(jf.entries())
+                    .stream()
+                    .map(ZipEntry::getName)
+                    .filter(name -> name.startsWith(path) && name.endsWith(".class") && !name.contains("$"))
+                    .map(name -> name.substring(0, name.length() - 6).replace('/', '.'))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void annotationScannerTest() throws IOException {
+        ClassLoader classLoader = getClass().getClassLoader();
+        for (Class<? extends Annotation> target : Arrays.asList(Singleton.class, Scan.class, Named.class, Test.class)) {
+            Set<String> expected = PackageScanner.scan("vest.assist.app", classLoader)
+                    .filter(c -> c.isAnnotationPresent(target))
+                    .map(Class::getName)
+                    .collect(Collectors.toSet());
+            Set<String> scanned = PackageScanner.scanClassNames("vest.assist.app", target, classLoader)
+                    .collect(Collectors.toSet());
+            assertEquals(scanned, expected, "scanning for " + target);
+        }
+        assertTrue(PackageScanner.scan("vest.assist.app", Singleton.class).anyMatch(c -> c == ScannedComponent.class));
+
+        try (InputStream in = classLoader.getResourceAsStream("vest/assist/app/ScannedComponent.class")) {
+            ClassMetadata metadata = ClassMetadata.read(in);
+            assertEquals(metadata.className(), ScannedComponent.class.getName());
+            assertEquals(metadata.superClassName(), Object.class.getName());
+            assertTrue(metadata.annotations().contains(Singleton.class.getName()));
+            assertTrue(metadata.annotations().contains(Eager.class.getName()));
+        }
+    }
+
+    @Test
+    public void scanCacheTest() throws IOException {
+        Path cacheDirectory = Files.createTempDirectory("scan-cache");
+        Path jar = Files.createTempFile("scan-cache", ".jar");
+        try {
+            try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+                out.putNextEntry(new JarEntry("vest/"));
+                out.putNextEntry(new JarEntry("vest/assist/"));
+                out.putNextEntry(new JarEntry("vest/assist/app/"));
+                for (Class<?> type : Arrays.asList(ScannedComponent.class, Teapot.class, CoffeeMaker.class)) {
+                    String name = type.getName().replace('.', '/') + ".class";
+                    out.putNextEntry(new JarEntry(name));
+                    try (InputStream in = getClass().getClassLoader().getResourceAsStream(name)) {
+                        byte[] buffer = new byte[4096];
+                        int read;
+                        while ((read = in.read(buffer)) > 0) {
+                            out.write(buffer, 0, read);
+                        }
+                    }
+                    out.closeEntry();
+                }
+            }
+            ScanCache cache = new ScanCache(cacheDirectory);
+            Set<String> expected = new HashSet<>(Arrays.asList(ScannedComponent.class.getName(), Teapot.class.getName()));
+            try (URLClassLoader classLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, null)) {
+                assertEquals(PackageScanner.scanClassNames("vest.assist.app", Singleton.class, classLoader, cache).collect(Collectors.toSet()), expected);
+
+                List<Path> cacheFiles;
+                try (Stream<Path> files = Files.list(cacheDirectory)) {
+                    cacheFiles = files.collect(Collectors.toList());
+                }
+                assertEquals(cacheFiles.size(), 1);
+
+                // a fake entry in the cache file proves the second scan doesn't read the jar
+                Files.write(cacheFiles.get(0), Collections.singletonList("vest.assist.app.Fake|java.lang.Object|javax.inject.Singleton"), StandardOpenOption.APPEND);
+                assertTrue(PackageScanner.scanClassNames("vest.assist.app", Singleton.class, classLoader, cache).anyMatch("vest.assist.app.Fake"::equals));
+                assertEquals(PackageScanner.scanClassNames("vest.assist.app", classLoader, cache).count(), 4);
+
+                // modifying the jar invalidates the cache entry
+                Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 10_000));
+                assertEquals(PackageScanner.scanClassNames("vest.assist.app", Singleton.class, classLoader, cache).collect(Collectors.toSet()), expected);
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(cacheDirectory)) {
+                for (Path file : files.collect(Collectors.toList())) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(cacheDirectory);
+            Files.delete(jar);
+        }
+    }
+
+    @Test
+    public void componentIndexTest() {
+        ComponentIndex componentIndex = ComponentIndex.load();
+        assertNotNull(componentIndex);
+        Set<String> indexed = componentIndex.classNames("vest.assist.app", Singleton.class).collect(Collectors.toSet());
+        Set<String> scanned = PackageScanner.scan("vest.assist.app")
+                .filter(c -> c.isAnnotationPresent(Singleton.class))
+                .map(Class::getName)
+                .collect(Collectors.toSet());
+        assertEquals(indexed, scanned);
+        assertTrue(indexed.contains(ScannedComponent.class.getName()));
+        // member types are indexed too, the index replaces scanning their root
+        assertTrue(indexed.contains(ScannedComponent.Nested.class.getName()));
+        assertTrue(componentIndex.scan("vest.assist.app", Scan.class).anyMatch(c -> c == AppConfig.class));
+        assertEquals(componentIndex.classNames("vest.assist.ap", Singleton.class).count(), 0);
+        assertEquals(componentIndex.classNames("org.slf4j", Singleton.class).count(), 0);
+
+        // only the test classes are indexed, the main classes are found by scanning their root
+        Set<Class<?>> functional = PackageScanner.scan("vest.assist", FunctionalInterface.class, null, componentIndex).collect(Collectors.toSet());
+        assertTrue(functional.contains(Instantiator.class));
+        assertTrue(componentIndex.classNames("vest.assist", FunctionalInterface.class).noneMatch(name -> name.equals(Instantiator.class.getName())));
+        Set<Class<?>> singletons = PackageScanner.scan("vest.assist", Singleton.class, null, componentIndex).collect(Collectors.toSet());
+        assertTrue(singletons.contains(ScannedComponent.class));
+        assertTrue(singletons.contains(ScannedComponent.Nested.class));
+        assertEquals(singletons.size(), singletons.stream().distinct().count());
+    }
+
     @Test
     public void reflectorTest() {
         Reflector r = Reflector.of(AppConfig.class);
@@ -60,6 +313,413 @@ public class MiscTest extends Assert {
         assertNotEquals(Reflector.of(AppConfig.class), r);
     }
 
+    @Test
+    public void memberViewsTest() {
+        Reflector reflector = Reflector.of(AppConfig.class);
+        List<Method> factories = reflector.methods(Factory.class);
+        assertFalse(factories.isEmpty());
+        assertSame(reflector.methods(Factory.class), factories);
+        for (Method method : factories) {
+            assertTrue(method.isAnnotationPresent(Factory.class));
+            assertFalse(method.isSynthetic());
+        }
+        assertEquals(factories, reflector.methods().stream()
+                .filter(m -> m.isAnnotationPresent(Factory.class))
+                .collect(Collectors.toList()));
+        assertEquals(Reflector.of(TCLazy.class).fields(Inject.class).stream().map(Field::getName).collect(Collectors.toList()),
+                Arrays.asList("lazyMaker", "lazyFancyMaker"));
+        assertTrue(Reflector.of(TCLazy.class).methods(Inject.class).isEmpty());
+    }
+
+    @Test
+    public void providerIndexBatchTest() {
+        ProviderIndex index = new ProviderIndex();
+        int version = index.version();
+        index.setProviders(Arrays.asList(
+                new AdHocProvider<>(CoffeeMaker.class, null, new Keurig()),
+                new AdHocProvider<>(CoffeeMaker.class, new NamedImpl("pourOver"), new PourOver()),
+                new AdHocProvider<>(String.class, null, "tea")));
+        // one publish for the whole batch
+        assertEquals(index.version(), version + 1);
+        assertEquals(index.size(), 3);
+        assertEquals(index.allProviders().count(), 3);
+        assertEquals(index.getProviders(CoffeeMaker.class).count(), 2);
+        assertNotNull(index.getProvider(String.class, null));
+
+        // the providers before a rejected one stay registered
+        assertThrows(IllegalArgumentException.class, () -> index.setProviders(Arrays.asList(
+                new AdHocProvider<>(Integer.class, null, 42),
+                new AdHocProvider<>(String.class, null, "tea"))));
+        assertNotNull(index.getProvider(Integer.class, null));
+        assertEquals(index.size(), 4);
+        assertEquals(index.version(), version + 2);
+    }
+
+    @Test
+    public void providerIndexResolvedBindingsTest() {
+        ProviderIndex index = new ProviderIndex();
+        List<CountingLeather> qualifiers = new ArrayList<>();
+        List<AssistProvider<?>> providers = new ArrayList<>();
+        for (Leather.Color color : Leather.Color.values()) {
+            CountingLeather qualifier = new CountingLeather(color);
+            qualifiers.add(qualifier);
+            providers.add(new AdHocProvider<>(CoffeeMaker.class, qualifier, new Keurig()));
+        }
+        index.setProviders(providers);
+        index.setProvider(new AdHocProvider<>(CoffeeMaker.class, null, new PourOver()));
+        int compared = qualifiers.stream().mapToInt(q -> q.compared.get()).sum();
+        // a qualified lookup is resolved ahead of time, not by comparing the qualifier with every provider of the type
+        for (int i = 0; i < 10; i++) {
+            for (Leather.Color color : Leather.Color.values()) {
+                AssistProvider<?> provider = index.getProvider(CoffeeMaker.class, QualifierKey.of(new CountingLeather(color)));
+                assertSame(provider, providers.get(color.ordinal()));
+            }
+            assertSame(index.getProvider(CoffeeMaker.class, null).get().getClass(), PourOver.class);
+        }
+        assertEquals(qualifiers.stream().mapToInt(q -> q.compared.get()).sum(), compared);
+
+        // and resolved again when the providers of the type change
+        AdHocProvider<CoffeeMaker> named = new AdHocProvider<>(CoffeeMaker.class, new NamedImpl("black"), new PourOver());
+        index.setProvider(named);
+        assertSame(index.getProvider(CoffeeMaker.class, QualifierKey.named("black")), named);
+        assertSame(index.getProvider(CoffeeMaker.class, QualifierKey.of(new CountingLeather(Leather.Color.BLACK))), providers.get(Leather.Color.BLACK.ordinal()));
+        assertNull(index.getProvider(CoffeeMaker.class, QualifierKey.named("white")));
+    }
+
+    @Test
+    public void qualifierKeyTest() throws Exception {
+        Class<?> type = QualifiedFields.class;
+        Annotation a1 = type.getDeclaredField("a1").getAnnotation(Named.class);
+        Annotation a2 = type.getDeclaredField("a2").getAnnotation(Named.class);
+        assertSame(QualifierKey.of(a1), QualifierKey.of(a2));
+        assertSame(QualifierKey.of(a1), QualifierKey.named("a"));
+        assertSame(QualifierKey.of(new NamedImpl("a")), QualifierKey.named("a"));
+        assertNotSame(QualifierKey.named("a"), QualifierKey.of(type.getDeclaredField("b").getAnnotation(Named.class)));
+        assertEquals(QualifierKey.named("a").annotation(), a1);
+        assertNull(QualifierKey.of(null));
+
+        Annotation black1 = type.getDeclaredField("black1").getAnnotation(Leather.class);
+        Annotation black2 = type.getDeclaredField("black2").getAnnotation(Leather.class);
+        Annotation tan = type.getDeclaredField("tan").getAnnotation(Leather.class);
+        assertSame(QualifierKey.of(black1), QualifierKey.of(black2));
+        assertNotSame(QualifierKey.of(black1), QualifierKey.of(tan));
+        assertEquals(QualifierKey.of(tan).annotation(), tan);
+
+        // the attributes of an annotation instance are only read the first time it is seen
+        CountingLeather red = new CountingLeather(Leather.Color.RED);
+        QualifierKey redKey = QualifierKey.of(red);
+        assertSame(QualifierKey.of(red), redKey);
+        assertSame(QualifierKey.of(red), redKey);
+        assertEquals(red.reads.get(), 1);
+        assertSame(QualifierKey.of(new CountingLeather(Leather.Color.RED)), redKey);
+        // the instance lookup does not hold on to the annotations it looked up
+        ReferenceQueue<Annotation> lookedUp = new ReferenceQueue<>();
+        WeakReference<Annotation> otherRed = lookUp(new CountingLeather(Leather.Color.RED), redKey, lookedUp);
+        assertEquals(awaitCollected(lookedUp, 1), 1, "looked up qualifier instance was not released");
+        assertNull(otherRed.get());
+
+        // keys that are no longer used are not kept
+        ReferenceQueue<QualifierKey> collected = new ReferenceQueue<>();
+        List<WeakReference<QualifierKey>> unused = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            unused.add(new WeakReference<>(QualifierKey.named("unused-" + i), collected));
+        }
+        assertEquals(awaitCollected(collected, unused.size()), unused.size(), "unused qualifier keys were not released");
+    }
+
+    private static WeakReference<Annotation> lookUp(CountingLeather qualifier, QualifierKey expected, ReferenceQueue<Annotation> queue) {
+        assertSame(QualifierKey.of(qualifier), expected);
+        assertSame(QualifierKey.of(qualifier), expected);
+        assertEquals(qualifier.reads.get(), 1);
+        return new WeakReference<>(qualifier, queue);
+    }
+
+    private static final class CountingLeather implements Leather {
+        private final Color color;
+        private final AtomicInteger reads = new AtomicInteger();
+        private final AtomicInteger compared = new AtomicInteger();
+
+        CountingLeather(Color color) {
+            this.color = color;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            compared.incrementAndGet();
+            return o instanceof Leather && ((Leather) o).color() == color;
+        }
+
+        @Override
+        public int hashCode() {
+            return (127 * "color".hashCode()) ^ color.hashCode();
+        }
+
+        @Override
+        public Color color() {
+            reads.incrementAndGet();
+            return color;
+        }
+
+        @Override
+        public Class<? extends Annotation> annotationType() {
+            return Leather.class;
+        }
+    }
+
+    private static class QualifiedFields {
+        @Named("a")
+        Object a1;
+        @Named("a")
+        Object a2;
+        @Named("b")
+        Object b;
+        @Leather(color = Leather.Color.BLACK)
+        Object black1;
+        @Leather(color = Leather.Color.BLACK)
+        Object black2;
+        @Leather
+        Object tan;
+    }
+
+    @Test
+    public void typeKeyOwnerTest() throws Exception {
+        Class<?> type = InnerTypes.class;
+        TypeKey stringOwner = TypeKey.of(type.getDeclaredField("stringOwner").getGenericType());
+        TypeKey longOwner = TypeKey.of(type.getDeclaredField("longOwner").getGenericType());
+        assertNotNull(stringOwner);
+        assertNotSame(stringOwner, longOwner);
+        assertSame(TypeKey.of(type.getDeclaredField("stringOwner2").getGenericType()), stringOwner);
+        assertSame(stringOwner.owner(), TypeKey.of(type.getDeclaredField("outer").getGenericType()));
+        assertEquals(stringOwner.toString(), Outer.class.getName() + "<java.lang.String>$Inner<java.lang.Integer>");
+        // an inner class without its own type arguments is still parameterized by its owner
+        assertTrue(TypeKey.of(type.getDeclaredField("plain").getGenericType()).parameterized());
+        // a static nested class has no parameterized owner
+        assertNull(TypeKey.of(type.getDeclaredField("entry").getGenericType()).owner());
+
+        Outer<String> strings = new Outer<>();
+        Outer<Long> longs = new Outer<>();
+        Assist assist = new Assist();
+        assist.addConfig(new Object() {
+            @Factory
+            public Outer<String>.Inner<Integer> stringInner() {
+                return strings.new Inner<>();
+            }
+
+            @Factory
+            public Outer<Long>.Inner<Integer> longInner() {
+                return longs.new Inner<>();
+            }
+        });
+        assertSame(((Outer<?>.Inner<?>) assist.providerFor(type.getDeclaredField("stringOwner").getGenericType(), null).get()).outer(), strings);
+        assertSame(((Outer<?>.Inner<?>) assist.providerFor(type.getDeclaredField("longOwner").getGenericType(), null).get()).outer(), longs);
+    }
+
+    private static class Outer<A> {
+        class Inner<B> {
+            Outer<A> outer() {
+                return Outer.this;
+            }
+        }
+
+        class Plain {
+        }
+    }
+
+    private static class InnerTypes {
+        Outer<String> outer;
+        Outer<String>.Inner<Integer> stringOwner;
+        Outer<String>.Inner<Integer> stringOwner2;
+        Outer<Long>.Inner<Integer> longOwner;
+        Outer<String>.Plain plain;
+        Map.Entry<String, Integer> entry;
+    }
+
+    @Test
+    public void memberMetadataTest() throws Exception {
+        MemberMetadata frenchPress = Reflector.getMetadata(AppConfig.class.getMethod("frenchPress"));
+        log.info("{}", frenchPress);
+        assertTrue(frenchPress.has(Factory.class));
+        assertTrue(frenchPress.has(Primary.class));
+        assertFalse(frenchPress.has(Eager.class));
+        assertFalse(frenchPress.has(Inject.class));
+        assertEquals(((Named) frenchPress.qualifier()).value(), "frenchPress");
+        // annotations that are not tracked in the bitset are read from the element
+        assertTrue(frenchPress.has(Named.class));
+        assertEquals(frenchPress.annotation(Named.class), frenchPress.qualifier());
+        assertSame(Reflector.getMetadata(AppConfig.class.getMethod("frenchPress")), frenchPress);
+
+        Field bool = TCPropertyInjection.class.getField("bool");
+        MemberMetadata boolMetadata = Reflector.getMetadata(bool);
+        assertTrue(boolMetadata.has(Inject.class));
+        assertEquals(boolMetadata.annotation(Property.class).value(), "boolean");
+        assertNull(boolMetadata.annotation(Lazy.class));
+        assertNull(boolMetadata.qualifier());
+
+        Parameter enumParameter = TCPropertyInjection.class.getDeclaredMethod("setProps", ConfigurationTest.DemoEnum.class).getParameters()[0];
+        assertEquals(Reflector.getMetadata(enumParameter).annotation(Property.class).value(), "enum");
+        assertEquals(Reflector.getMetadata(Keurig.class).qualifier().annotationType(), Named.class);
+    }
+
+    @Test
+    public void reflectorReleasesClassLoaders() throws Exception {
+        ReferenceQueue<Object> collected = new ReferenceQueue<>();
+        List<WeakReference<?>> released = new ArrayList<>();
+        // a container that outlives the plugins does not keep them loaded
+        Assist longLived = new Assist();
+        for (int i = 0; i < 5; i++) {
+            // "redeploy" a plugin, each time in a new class loader
+            ClassLoader loader = new PluginClassLoader(TCLazy.class.getName());
+            Class<?> type = loader.loadClass(TCLazy.class.getName());
+            assertNotSame(type, TCLazy.class);
+            Reflector reflector = Reflector.of(type);
+            assertEquals(reflector.injectionPlan().injectFields().size(), 2);
+            for (Field field : reflector.fields()) {
+                Reflector.getQualifier(field);
+            }
+            assertNotNull(ComponentIndex.load(loader));
+            // a parameterized key is held by the plugin class, not by the bootstrap raw type
+            TypeKey pluginList = TypeKey.of(listOf(type));
+            assertSame(TypeKey.of(listOf(type)), pluginList);
+            assertSame(pluginList.home(), type);
+            longLived.inject(type.getDeclaredConstructor().newInstance());
+            // and the classes a container injected do not keep the container alive
+            Assist assist = new Assist();
+            assist.inject(type.getDeclaredConstructor().newInstance());
+            assist.inject(new TCResolvedValues(1, Optional.empty()));
+            assist.close();
+            released.add(new WeakReference<>(loader, collected));
+            released.add(new WeakReference<>(assist, collected));
+        }
+        assertEquals(awaitCollected(collected, released.size()), released.size(), "plugin class loaders or containers were not garbage collected");
+        longLived.close();
+    }
+
+    private static ParameterizedType listOf(Class<?> element) {
+        return new ParameterizedType() {
+            @Override
+            public Type[] getActualTypeArguments() {
+                return new Type[]{element};
+            }
+
+            @Override
+            public Type getRawType() {
+                return List.class;
+            }
+
+            @Override
+            public Type getOwnerType() {
+                return null;
+            }
+        };
+    }
+
+    // wait (bounded) for the given number of references to be enqueued; a collection is only requested, so the heap is
+    // also put under some pressure between attempts
+    private static int awaitCollected(ReferenceQueue<?> queue, int expected) throws InterruptedException {
+        int count = 0;
+        for (int attempt = 0; attempt < 20 && count < expected; attempt++) {
+            System.gc();
+            List<byte[]> pressure = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                pressure.add(new byte[1 << 20]);
+            }
+            pressure.clear();
+            Reference<?> ref;
+            while (count < expected && (ref = queue.remove(100)) != null) {
+                ref.clear();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // loads its own copy of the plugin class, everything else comes from the parent
+    private static final class PluginClassLoader extends ClassLoader {
+        private final String pluginClass;
+
+        PluginClassLoader(String pluginClass) {
+            super(MiscTest.class.getClassLoader());
+            this.pluginClass = pluginClass;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(pluginClass)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                if (c == null) {
+                    try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                        byte[] buffer = new byte[4096];
+                        int read;
+                        while ((read = in.read(buffer)) != -1) {
+                            bytes.write(buffer, 0, read);
+                        }
+                        c = defineClass(name, bytes.toByteArray(), 0, bytes.size());
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                return c;
+            }
+        }
+    }
+
+    @Test
+    public void injectionPlanTest() {
+        InjectionPlan plan = Reflector.of(TCPropertyInjection.class).injectionPlan();
+        log.info("{}", plan);
+        assertSame(Reflector.of(TCPropertyInjection.class).injectionPlan(), plan);
+        assertEquals(plan.propertyFields().stream().map(i -> i.field().getName()).collect(Collectors.toList()), Arrays.asList("str", "integer", "numbers"));
+        assertEquals(plan.injectFields().stream().map(i -> i.field().getName()).collect(Collectors.toList()), Collections.singletonList("bool"));
+        assertEquals(plan.injectMethods().size(), 1);
+        assertTrue(plan.scheduledMethods().isEmpty());
+
+        // overridden @Inject methods are only listed once, and parent methods come first
+        List<String> childMethods = Reflector.of(Child.class).injectionPlan().injectMethods()
+                .stream()
+                .map(i -> i.method().getName())
+                .collect(Collectors.toList());
+        assertEquals(childMethods.size(), 3);
+        assertEquals(childMethods.get(0), "increment");
+        assertFalse(childMethods.contains("overrideNoInject"));
+    }
+
+    @Test
+    public void generatedInjectorTest() {
+        // generated by the InjectorProcessor during test compilation
+        GeneratedInjector<Parent> injector = GeneratedInjector.find(Parent.class);
+        assertNotNull(injector);
+        assertEquals(injector.type(), Parent.class);
+        assertEquals(injector.parameterTypes().length, 0);
+        assertEquals(injector.newInstance(new Object[0]).getClass(), Parent.class);
+        assertNotNull(GeneratedInjector.find(AppConfig.class));
+        // found once per class, misses included
+        assertSame(GeneratedInjector.find(Parent.class), injector);
+        assertNull(GeneratedInjector.find(MiscTest.class));
+        assertNull(GeneratedInjector.find(MiscTest.class));
+
+        // private constructors can't be called from generated code
+        assertNull(GeneratedInjector.find(Teapot.class));
+        // multiple @Inject constructors are left for the runtime to reject
+        assertNull(GeneratedInjector.find(TCInvalidClass2.class));
+        assertNull(GeneratedInjector.find(String.class));
+
+        Assist assist = new Assist();
+        assertEquals(assist.instance(Child.class).getI(), -1);
+
+        // with a generated injector, the constructor is only looked up once its parameters are needed
+        ConstructorProvider<Parent> parent = new ConstructorProvider<>(Parent.class, assist);
+        assertEquals(parent.toString(), "ConstructorProvider{" + Parent.class.getName() + "()}:" + parent.hashCode());
+        assertNotNull(parent.get());
+        assertTrue(parent.dependencies().isEmpty());
+        ConstructorProvider<TCCircularDependency.Left> left = new ConstructorProvider<>(TCCircularDependency.Left.class, assist);
+        assertTrue(left.toString().contains(TCCircularDependency.Left.class.getName() + "(" + TCCircularDependency.Right.class.getName() + ")"));
+        assertEquals(((Parameter) left.dependencies().get(0)).getType(), TCCircularDependency.Right.class);
+    }
+
     @Test
     public void namedImplTest() {
         Named synthetic = new NamedImpl("pourOver");
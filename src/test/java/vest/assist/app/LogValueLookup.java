@@ -17,4 +17,9 @@ public class LogValueLookup implements ValueLookup {
             return null;
         }
     }
+
+    @Override
+    public boolean supports(Class<?> rawType, Type genericType, AnnotatedElement annotatedElement) {
+        return annotatedElement instanceof Field && rawType == Logger.class;
+    }
 }
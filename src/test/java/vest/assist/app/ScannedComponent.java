@@ -17,4 +17,8 @@ public class ScannedComponent {
     public void init() {
         log.info("scanned init");
     }
+
+    @Singleton
+    public static class Nested {
+    }
 }
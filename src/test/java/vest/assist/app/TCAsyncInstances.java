@@ -0,0 +1,64 @@
+package vest.assist.app;
+
+import vest.assist.annotations.Factory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class TCAsyncInstances {
+
+    private final CountDownLatch connecting = new CountDownLatch(2);
+
+    @Factory
+    @Singleton
+    public UserClient userClient() throws InterruptedException {
+        return new UserClient(connect());
+    }
+
+    @Factory
+    @Singleton
+    public OrderClient orderClient() throws InterruptedException {
+        return new OrderClient(connect());
+    }
+
+    // only returns true when both clients connect at the same time
+    private boolean connect() throws InterruptedException {
+        connecting.countDown();
+        return connecting.await(5, TimeUnit.SECONDS);
+    }
+
+    public static class UserClient {
+        public final boolean concurrent;
+
+        UserClient(boolean concurrent) {
+            this.concurrent = concurrent;
+        }
+    }
+
+    public static class OrderClient {
+        public final boolean concurrent;
+
+        OrderClient(boolean concurrent) {
+            this.concurrent = concurrent;
+        }
+    }
+
+    public static class Dashboard {
+        public final UserClient users;
+        public final OrderClient orders;
+
+        @Inject
+        public Dashboard(UserClient users, OrderClient orders) {
+            this.users = users;
+            this.orders = orders;
+        }
+    }
+
+    public static class Report {
+        @Inject
+        public CompletableFuture<UserClient> users;
+    }
+}
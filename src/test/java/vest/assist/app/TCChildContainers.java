@@ -0,0 +1,35 @@
+package vest.assist.app;
+
+import vest.assist.annotations.Factory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TCChildContainers {
+
+    public final AtomicInteger sharedCreated = new AtomicInteger();
+
+    @Factory
+    public CoffeeMaker frenchPress() {
+        return new FrenchPress();
+    }
+
+    @Factory
+    @Singleton
+    @Named("shared")
+    public CoffeeMaker shared() {
+        sharedCreated.incrementAndGet();
+        return new Keurig();
+    }
+
+    public static class Barista {
+        @Inject
+        public CoffeeMaker coffeeMaker;
+
+        @Inject
+        @Named("shared")
+        public CoffeeMaker shared;
+    }
+}
@@ -0,0 +1,38 @@
+package vest.assist.app;
+
+import vest.assist.annotations.Factory;
+import vest.assist.annotations.SkipInjection;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+public class TCCircularDependency {
+
+    public static class Left {
+        @Inject
+        public Left(Right right) {
+        }
+    }
+
+    public static class Right {
+        @Inject
+        public Right(Left left) {
+        }
+    }
+
+    public static class Config {
+        @Factory
+        @SkipInjection
+        @Named("hen")
+        public String hen(@Named("egg") String egg) {
+            return "hen";
+        }
+
+        @Factory
+        @SkipInjection
+        @Named("egg")
+        public String egg(@Named("hen") String hen) {
+            return "egg";
+        }
+    }
+}
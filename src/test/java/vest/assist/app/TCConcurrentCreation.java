@@ -0,0 +1,47 @@
+package vest.assist.app;
+
+import vest.assist.AssistProvider;
+import vest.assist.ProviderWrapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TCConcurrentCreation {
+
+    public static class First {
+    }
+
+    public static class Second {
+    }
+
+    public static class Shared {
+    }
+
+    // holds up building the First and Second providers until both are being built
+    public static class SlowWrapper implements ProviderWrapper {
+
+        public final Map<Class<?>, AtomicInteger> wrapped = new ConcurrentHashMap<>();
+        public final Map<Class<?>, Boolean> concurrent = new ConcurrentHashMap<>();
+        private final CountDownLatch building = new CountDownLatch(2);
+
+        @Override
+        public <T> AssistProvider<T> wrap(AssistProvider<T> provider) {
+            Class<T> type = provider.type();
+            wrapped.computeIfAbsent(type, t -> new AtomicInteger()).incrementAndGet();
+            try {
+                if (type == First.class || type == Second.class) {
+                    building.countDown();
+                    concurrent.put(type, building.await(5, TimeUnit.SECONDS));
+                } else if (type == Shared.class) {
+                    Thread.sleep(50);
+                }
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return provider;
+        }
+    }
+}
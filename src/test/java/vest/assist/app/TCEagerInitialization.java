@@ -0,0 +1,69 @@
+package vest.assist.app;
+
+import vest.assist.annotations.Eager;
+import vest.assist.annotations.Factory;
+
+import javax.inject.Singleton;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TCEagerInitialization {
+
+    public final AtomicInteger warmUps = new AtomicInteger();
+    private final CountDownLatch warmingUp = new CountDownLatch(2);
+
+    @Factory
+    @Eager
+    @Singleton
+    public Pool pool() throws InterruptedException {
+        return new Pool(warmUp());
+    }
+
+    @Factory
+    @Eager
+    @Singleton
+    public Cache cache() throws InterruptedException {
+        return new Cache(warmUp());
+    }
+
+    @Factory
+    @Eager
+    @Singleton
+    public Service service(Pool pool, Cache cache) {
+        return new Service(pool, cache);
+    }
+
+    // only returns true when the pool and cache warm up at the same time
+    private boolean warmUp() throws InterruptedException {
+        warmUps.incrementAndGet();
+        warmingUp.countDown();
+        return warmingUp.await(5, TimeUnit.SECONDS);
+    }
+
+    public static class Pool {
+        public final boolean concurrent;
+
+        Pool(boolean concurrent) {
+            this.concurrent = concurrent;
+        }
+    }
+
+    public static class Cache {
+        public final boolean concurrent;
+
+        Cache(boolean concurrent) {
+            this.concurrent = concurrent;
+        }
+    }
+
+    public static class Service {
+        public final Pool pool;
+        public final Cache cache;
+
+        Service(Pool pool, Cache cache) {
+            this.pool = pool;
+            this.cache = cache;
+        }
+    }
+}
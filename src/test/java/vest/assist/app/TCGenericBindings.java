@@ -0,0 +1,53 @@
+package vest.assist.app;
+
+import vest.assist.annotations.Factory;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class TCGenericBindings {
+
+    @Factory
+    public List<String> names() {
+        return Arrays.asList("a", "b");
+    }
+
+    @Factory
+    public List<Integer> numbers() {
+        return Arrays.asList(1, 2);
+    }
+
+    @Factory
+    public CoffeeMaker frenchPress() {
+        return new FrenchPress();
+    }
+
+    @Factory
+    @Singleton
+    public Map<String, CoffeeMaker> makers(CoffeeMaker coffeeMaker) {
+        return Collections.singletonMap("french", coffeeMaker);
+    }
+
+    public static class Consumer {
+        @Inject
+        public List<String> names;
+
+        @Inject
+        public List<Integer> numbers;
+
+        @Inject
+        public Provider<List<Integer>> numbersProvider;
+
+        @Inject
+        public Map<String, CoffeeMaker> makers;
+
+        // no binding for exactly this type, so it collects the CoffeeMaker providers
+        @Inject
+        public List<CoffeeMaker> collected;
+    }
+}
@@ -0,0 +1,46 @@
+package vest.assist.app;
+
+import vest.assist.annotations.Factory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TCInvalidGraph {
+
+    public static final AtomicInteger created = new AtomicInteger();
+
+    @Factory
+    @Named("needsMissing")
+    public Coosie coosie(@Named("missing") CoffeeMaker coffeeMaker) {
+        created.incrementAndGet();
+        return new Coosie("none");
+    }
+
+    @Factory
+    public Chicken chicken(Egg egg) {
+        created.incrementAndGet();
+        return new Chicken();
+    }
+
+    @Factory
+    public Egg egg(Chicken chicken) {
+        created.incrementAndGet();
+        return new Egg();
+    }
+
+    public interface Service {
+    }
+
+    public static class ServiceImpl implements Service {
+        @Inject
+        @Named("missing")
+        public CoffeeMaker coffeeMaker;
+    }
+
+    public static class Chicken {
+    }
+
+    public static class Egg {
+    }
+}
@@ -0,0 +1,61 @@
+package vest.assist.app;
+
+import vest.assist.annotations.Factory;
+import vest.assist.annotations.Lazy;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class TCLazyProxies {
+
+    public final AtomicInteger created = new AtomicInteger();
+
+    @Factory
+    @Lazy
+    @Singleton
+    @Named("lazyMaker")
+    public CoffeeMaker lazyMaker() {
+        created.incrementAndGet();
+        return new FrenchPress();
+    }
+
+    @Factory
+    @Lazy
+    @Named("lazyUpper")
+    public Function<String, String> lazyUpper() {
+        return String::toUpperCase;
+    }
+
+    @Factory
+    @Lazy
+    @Named("lazyFailure")
+    public Callable<String> lazyFailure() {
+        return () -> {
+            throw new IOException("out of beans");
+        };
+    }
+
+    public static class Consumer {
+
+        @Inject
+        @Named("lazyMaker")
+        public CoffeeMaker maker;
+
+        @Inject
+        @Lazy
+        @Named("notYetRegistered")
+        public CoffeeMaker later;
+
+        public final CoffeeMaker fromConstructor;
+
+        @Inject
+        public Consumer(@Named("lazyMaker") CoffeeMaker fromConstructor) {
+            this.fromConstructor = fromConstructor;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package vest.assist.app;
+
+import vest.assist.ValueLookup;
+import vest.assist.annotations.Factory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Type;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TCResolvedValues {
+
+    public final Integer count;
+    public final Optional<CoffeeMaker> constructorCoffeeMaker;
+
+    @Inject
+    public Optional<CoffeeMaker> coffeeMaker;
+
+    @Inject
+    public TCResolvedValues(@Named("counter") Integer count, Optional<CoffeeMaker> constructorCoffeeMaker) {
+        this.count = count;
+        this.constructorCoffeeMaker = constructorCoffeeMaker;
+    }
+
+    public static class Config {
+        @Factory
+        @Named("brewing")
+        public String brewing(Optional<CoffeeMaker> coffeeMaker) {
+            return coffeeMaker.map(CoffeeMaker::brew).orElse("nothing");
+        }
+    }
+
+    public static class CounterValueLookup implements ValueLookup {
+
+        public final AtomicInteger resolved = new AtomicInteger();
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Object lookup(Class<?> rawType, Type genericType, AnnotatedElement annotatedElement) {
+            Provider<?> resolver = resolver(rawType, genericType, annotatedElement);
+            return resolver != null ? resolver.get() : null;
+        }
+
+        @Override
+        public Provider<?> resolver(Class<?> rawType, Type genericType, AnnotatedElement annotatedElement) {
+            Named named = annotatedElement.getAnnotation(Named.class);
+            if (rawType == Integer.class && named != null && named.value().equals("counter")) {
+                resolved.incrementAndGet();
+                return counter::incrementAndGet;
+            }
+            return null;
+        }
+    }
+}